@@ -3,6 +3,7 @@ package com.hivclinic.config;
 import com.hivclinic.model.User;
 import com.hivclinic.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,9 +11,14 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -20,6 +26,19 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    // Evictions are local, so other instances keep a deactivated user or old password hash until expiry
+    @Value("${app.security.principal-cache.ttl-seconds:10}")
+    private long principalCacheTtlSeconds = 10;
+
+    @Value("${app.security.principal-cache.max-entries:10000}")
+    private int principalCacheMaxEntries = 10000;
+
+    // Principals for the JWT filter, keyed by username; login still reads the database directly
+    private final Map<String, CachedPrincipal> principalCache = new ConcurrentHashMap<>();
+
+    // Bumped on every committed eviction; a load that overlapped one does not cache what it read
+    private final AtomicLong evictions = new AtomicLong();
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -34,6 +53,58 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.build(user, roleWithPrefix);
     }
 
+    /**
+     * Load user for an already authenticated JWT request, served from the principal cache when fresh
+     */
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = principalCache.get(username);
+        if (cached != null && cached.expiresAtMillis > now) {
+            return cached.principal;
+        }
+
+        long generation = evictions.get();
+        UserDetails principal = loadUserByUsername(username);
+        if (principalCache.size() >= principalCacheMaxEntries) {
+            principalCache.values().removeIf(entry -> entry.expiresAtMillis <= now);
+            if (principalCache.size() >= principalCacheMaxEntries) {
+                principalCache.clear();
+            }
+        }
+        principalCache.put(username, new CachedPrincipal(principal, now + principalCacheTtlSeconds * 1000));
+        // A change committed while the user was loading may have evicted before this put
+        if (evictions.get() != generation) {
+            principalCache.remove(username);
+        }
+        return principal;
+    }
+
+    /**
+     * Drop the cached principal for a user after account, password or profile changes.
+     * Inside a transaction the entry is dropped once the change has committed, so a concurrent
+     * request cannot cache the old row again; other instances pick the change up within the cache TTL
+     */
+    public void evictCachedUser(String username) {
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username);
+                }
+            });
+        } else {
+            evict(username);
+        }
+    }
+
+    private void evict(String username) {
+        evictions.incrementAndGet();
+        principalCache.remove(username);
+    }
+
     /**
      * Load user by user ID (useful for JWT authentication)
      */
@@ -45,6 +116,16 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
+    private static class CachedPrincipal {
+        private final UserDetails principal;
+        private final long expiresAtMillis;
+
+        private CachedPrincipal(UserDetails principal, long expiresAtMillis) {
+            this.principal = principal;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
     /**
      * Custom UserPrincipal class to represent authenticated user
      */
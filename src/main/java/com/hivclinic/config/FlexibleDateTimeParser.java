@@ -0,0 +1,191 @@
+package com.hivclinic.config;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Single-pass parser for the local date/time shapes accepted by the API.
+ * Replaces trying a list of DateTimeFormatters and catching DateTimeParseException: the input is
+ * scanned once by index, nothing but the result is allocated, and unsupported input returns null.
+ *
+ * Accepted, after trimming and dropping a trailing Z, +HH:MM or +HHMM offset:
+ * yyyy-MM-dd followed by 'T' or a space and HH:mm, HH:mm:ss or HH:mm:ss.fraction (up to 9 digits).
+ * With slash dates enabled, yyyy/MM/dd, MM/dd/yyyy and dd/MM/yyyy dates and a trailing " UTC" or " GMT"
+ * are accepted too; MM/dd is preferred when both readings are possible.
+ * As with the SMART formatters this replaces, a day past the end of the month resolves to its last day
+ * and 24:00 to midnight of the next day.
+ */
+public final class FlexibleDateTimeParser {
+
+    private FlexibleDateTimeParser() {
+    }
+
+    /**
+     * Parse an ISO-like local date/time, returning null if the text is not a supported shape or not a valid value
+     */
+    public static LocalDateTime parse(String text) {
+        return parse(text, false);
+    }
+
+    /**
+     * Parse an ISO-like or slash-separated local date/time, returning null if it is not supported or not valid
+     */
+    public static LocalDateTime parse(String text, boolean allowSlashDates) {
+        if (text == null) {
+            return null;
+        }
+
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (allowSlashDates && (endsWith(text, start, end, " UTC") || endsWith(text, start, end, " GMT"))) {
+            end -= 4;
+        }
+        if (end > start && text.charAt(end - 1) == 'Z') {
+            end--;
+        }
+        end = stripOffset(text, start, end);
+
+        // Shortest supported shape is yyyy-MM-ddTHH:mm
+        if (end - start < 16) {
+            return null;
+        }
+
+        int year;
+        int month;
+        int day;
+        int pos = start;
+        char dateSeparator = text.charAt(pos + 4);
+        if (dateSeparator == '-' || (allowSlashDates && dateSeparator == '/')) {
+            year = digits(text, pos, 4);
+            month = digits(text, pos + 5, 2);
+            day = digits(text, pos + 8, 2);
+            if (text.charAt(pos + 7) != dateSeparator) {
+                return null;
+            }
+        } else if (allowSlashDates && text.charAt(pos + 2) == '/' && text.charAt(pos + 5) == '/') {
+            int first = digits(text, pos, 2);
+            int second = digits(text, pos + 3, 2);
+            year = digits(text, pos + 6, 4);
+            month = first <= 12 ? first : second;
+            day = first <= 12 ? second : first;
+        } else {
+            return null;
+        }
+        pos += 10;
+
+        char timeSeparator = text.charAt(pos);
+        if (timeSeparator != 'T' && timeSeparator != ' ') {
+            return null;
+        }
+        int hour = digits(text, pos + 1, 2);
+        int minute = digits(text, pos + 4, 2);
+        if (text.charAt(pos + 3) != ':') {
+            return null;
+        }
+        pos += 6;
+
+        int second = 0;
+        int nano = 0;
+        if (pos < end) {
+            if (end - pos < 3 || text.charAt(pos) != ':') {
+                return null;
+            }
+            second = digits(text, pos + 1, 2);
+            pos += 3;
+
+            if (pos < end) {
+                int fractionDigits = end - pos - 1;
+                if (text.charAt(pos) != '.' || fractionDigits > 9) {
+                    return null;
+                }
+                nano = fractionDigits > 0 ? digits(text, pos + 1, fractionDigits) : 0;
+                for (int i = fractionDigits; i < 9 && nano >= 0; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+
+        // 24:00:00 is accepted as midnight at the end of the day
+        boolean endOfDay = hour == 24 && minute == 0 && second == 0 && nano == 0;
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || (hour > 23 && !endOfDay) || minute < 0 || minute > 59
+                || second < 0 || second > 59 || nano < 0) {
+            return null;
+        }
+        int lastDay = Month.of(month).length(Year.isLeap(year));
+        if (endOfDay) {
+            return LocalDateTime.of(year, month, Math.min(day, lastDay), 0, 0).plusDays(1);
+        }
+        return LocalDateTime.of(year, month, Math.min(day, lastDay), hour, minute, second, nano);
+    }
+
+    /**
+     * Whether the text is exactly yyyy-MM-ddTHH:mm:ss in shape, without checking the values
+     */
+    public static boolean isIsoSecondsShape(String text) {
+        if (text == null || text.length() != 19) {
+            return false;
+        }
+        for (int i = 0; i < 19; i++) {
+            char c = text.charAt(i);
+            boolean matches = switch (i) {
+                case 4, 7 -> c == '-';
+                case 10 -> c == 'T';
+                case 13, 16 -> c == ':';
+                default -> c >= '0' && c <= '9';
+            };
+            if (!matches) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Value of {@code count} ASCII digits at {@code offset}, or -1 if any of them is not a digit
+     */
+    private static int digits(String text, int offset, int count) {
+        if (offset + count > text.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * End index with a trailing +HH:MM, -HH:MM, +HHMM or -HHMM offset removed
+     */
+    private static int stripOffset(String text, int start, int end) {
+        if (end - start >= 6 && isSign(text.charAt(end - 6)) && text.charAt(end - 3) == ':'
+                && digits(text, end - 5, 2) >= 0 && digits(text, end - 2, 2) >= 0) {
+            return end - 6;
+        }
+        if (end - start >= 5 && isSign(text.charAt(end - 5)) && digits(text, end - 4, 4) >= 0) {
+            return end - 5;
+        }
+        return end;
+    }
+
+    private static boolean isSign(char c) {
+        return c == '+' || c == '-';
+    }
+
+    private static boolean endsWith(String text, int start, int end, String suffix) {
+        return end - start >= suffix.length() && text.regionMatches(end - suffix.length(), suffix, 0, suffix.length());
+    }
+}
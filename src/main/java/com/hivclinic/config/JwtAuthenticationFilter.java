@@ -43,8 +43,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
             if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                // Check if session is still valid
-                if (!userSessionService.isSessionValid(jwt)) {
+                // Check if session is still valid, from the revocation set in stateless mode
+                boolean stateless = userSessionService.isStatelessSession(jwt);
+                boolean sessionValid = stateless
+                        ? !userSessionService.isSessionRevoked(jwt)
+                        : userSessionService.isSessionValid(jwt);
+                if (!sessionValid) {
                     logger.warn("Session expired or invalid for token");
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.getWriter().write("{\"error\":\"Session expired\",\"message\":\"Please login again\"}");
@@ -53,14 +57,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
                 
                 String extractedUsername = jwtUtils.getUsernameFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(extractedUsername);
+                UserDetails userDetails = userDetailsService.loadCachedUserByUsername(extractedUsername);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
                 
-                // Update session activity
+                // Update session activity; idle stateless sessions are revoked when the cleanup expires them
                 userSessionService.updateSessionActivity(jwt);
                 
                 logger.debug("Set Authentication for user: {}", extractedUsername);
@@ -2,6 +2,7 @@ package com.hivclinic.config;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,33 +10,68 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JWT Utility class for token generation and validation
  */
 @Component
 public class JwtUtils {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String CLAIM_SESSION_ID = "sid";
+    public static final String CLAIM_SESSION_VERSION = "sver";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration-ms}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwt.claims-cache.max-entries:10000}")
+    private int claimsCacheMaxEntries;
+
+    // Derived once from the secret; the parser is immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Verified claims by token digest, so each token is signature-checked only once until it expires
+    private final Map<String, Claims> verifiedClaims = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     /**
      * Generate JWT token with username, user ID, and role
      */
     public String generateJwtToken(String username, Integer userId, String role) {
+        return generateJwtToken(username, userId, role, null, null);
+    }
+
+    /**
+     * Generate JWT token that also carries a session ID and version for stateless session validation
+     */
+    public String generateJwtToken(String username, Integer userId, String role, String sessionId, Long sessionVersion) {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("userId", userId)
                 .claim("role", role)
+                .claim(CLAIM_SESSION_ID, sessionId)
+                .claim(CLAIM_SESSION_VERSION, sessionVersion)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -43,36 +79,35 @@ public class JwtUtils {
      * Extract username from JWT token
      */
     public String getUsernameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return getVerifiedClaims(token).getSubject();
     }
 
     /**
      * Extract user ID from JWT token
      */
     public Integer getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("userId", Integer.class);
+        return getVerifiedClaims(token).get("userId", Integer.class);
     }
 
     /**
      * Extract role from JWT token
      */
     public String getRoleFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class);
+        return getVerifiedClaims(token).get("role", String.class);
+    }
+
+    /**
+     * Extract session ID from JWT token, null for tokens issued without one
+     */
+    public String getSessionIdFromJwtToken(String token) {
+        return getVerifiedClaims(token).get(CLAIM_SESSION_ID, String.class);
+    }
+
+    /**
+     * Extract session version from JWT token, null for tokens issued without one
+     */
+    public Long getSessionVersionFromJwtToken(String token) {
+        return getVerifiedClaims(token).get(CLAIM_SESSION_VERSION, Long.class);
     }
 
     /**
@@ -80,10 +115,7 @@ public class JwtUtils {
      */
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
+            getVerifiedClaims(authToken);
             return true;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
@@ -100,10 +132,52 @@ public class JwtUtils {
     }
 
     /**
-     * Get signing key from secret
+     * Get the claims of a token, verifying its signature only on the first call.
+     * Parse errors are thrown exactly as from the JJWT parser.
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public Claims getVerifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+
+        String key = digestToken(token);
+        Claims cached = verifiedClaims.get(key);
+        if (cached != null) {
+            if (cached.getExpiration() == null || cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            // Expired: drop it and let the parser raise ExpiredJwtException
+            verifiedClaims.remove(key);
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        if (verifiedClaims.size() >= claimsCacheMaxEntries) {
+            evictExpiredClaims();
+            if (verifiedClaims.size() >= claimsCacheMaxEntries) {
+                verifiedClaims.clear();
+            }
+        }
+        verifiedClaims.put(key, claims);
+        return claims;
+    }
+
+    /**
+     * Remove cached claims for tokens that have expired
+     */
+    public void evictExpiredClaims() {
+        Date now = new Date();
+        verifiedClaims.values().removeIf(claims -> claims.getExpiration() != null && !claims.getExpiration().after(now));
+    }
+
+    /**
+     * SHA-256 hex digest of a token, used as a cache key so raw tokens are not retained
+     */
+    public static String digestToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
-}
\ No newline at end of file
@@ -8,6 +8,9 @@ import com.hivclinic.model.Specialty;
 import com.hivclinic.model.User;
 import com.hivclinic.repository.RoleRepository; // <-- Import RoleRepository
 import com.hivclinic.service.AdminService;
+import com.hivclinic.service.AppointmentIntervalIndex;
+import com.hivclinic.service.AppointmentOutboxDispatcher;
+import com.hivclinic.service.LoginAttemptTracker;
 import jakarta.validation.Valid; // <-- Import để validation
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +36,15 @@ public class AdminController {
     @Autowired
     private RoleRepository roleRepository; // Cần thiết để lấy danh sách vai trò
 
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private AppointmentIntervalIndex appointmentIntervalIndex;
+
+    @Autowired
+    private AppointmentOutboxDispatcher appointmentOutboxDispatcher;
+
     // ----- ENDPOINT TẠO TÀI KHOẢN MỚI THỐNG NHẤT -----
     /**
      * Endpoint duy nhất để Admin tạo một tài khoản người dùng mới với vai trò bất kỳ.
@@ -174,4 +186,89 @@ public class AdminController {
                     .body(MessageResponse.error("Failed to create specialty: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // ----- LOGIN THROTTLING -----
+
+    /**
+     * Current failed-login counters per username and IP within the sliding window
+     */
+    @GetMapping("/login-throttle")
+    public ResponseEntity<?> getLoginThrottleCounters() {
+        try {
+            return ResponseEntity.ok(loginAttemptTracker.getSnapshot());
+        } catch (Exception e) {
+            logger.error("Error fetching login throttle counters: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(MessageResponse.error("Failed to get login throttle counters: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Clear failed-login counters for a username and/or IP address to lift a lockout
+     */
+    @DeleteMapping("/login-throttle")
+    public ResponseEntity<?> resetLoginThrottle(@RequestParam(required = false) String username,
+                                                @RequestParam(required = false) String ipAddress) {
+        if (username == null && ipAddress == null) {
+            return ResponseEntity.badRequest().body(MessageResponse.error("username or ipAddress is required"));
+        }
+        if (username != null) {
+            loginAttemptTracker.resetUsername(username);
+        }
+        if (ipAddress != null) {
+            loginAttemptTracker.resetIp(ipAddress);
+        }
+        return ResponseEntity.ok(MessageResponse.success("Login throttle counters reset"));
+    }
+
+    /**
+     * Compare the in-memory appointment conflict index with the database without changing it
+     */
+    @GetMapping("/appointment-index/verify")
+    public ResponseEntity<?> verifyAppointmentIndex() {
+        try {
+            return ResponseEntity.ok(appointmentIntervalIndex.verify());
+        } catch (Exception e) {
+            logger.error("Error verifying appointment index: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(MessageResponse.error("Failed to verify appointment index: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Compare the in-memory appointment conflict index with the database, reloading any schedule that differs
+     */
+    @PostMapping("/appointment-index/repair")
+    public ResponseEntity<?> repairAppointmentIndex() {
+        try {
+            return ResponseEntity.ok(appointmentIntervalIndex.repair());
+        } catch (Exception e) {
+            logger.error("Error repairing appointment index: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(MessageResponse.error("Failed to repair appointment index: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Count appointment outbox events that are pending and that failed for good
+     */
+    @GetMapping("/appointment-outbox")
+    public ResponseEntity<?> getAppointmentOutboxStatus() {
+        return ResponseEntity.ok(appointmentOutboxDispatcher.getStatus());
+    }
+
+    /**
+     * Retry every appointment outbox event that exhausted its attempts
+     */
+    @PostMapping("/appointment-outbox/replay")
+    public ResponseEntity<?> replayAppointmentOutbox() {
+        try {
+            int replayed = appointmentOutboxDispatcher.replayDeadEvents();
+            return ResponseEntity.ok(MessageResponse.success("Replaying " + replayed + " outbox events"));
+        } catch (Exception e) {
+            logger.error("Error replaying appointment outbox: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(MessageResponse.error("Failed to replay appointment outbox: " + e.getMessage()));
+        }
+    }
+}
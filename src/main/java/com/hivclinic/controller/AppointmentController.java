@@ -2,19 +2,23 @@ package com.hivclinic.controller;
 
 import com.hivclinic.config.CustomUserDetailsService.UserPrincipal;
 import com.hivclinic.dto.request.AppointmentBookingRequest;
+import com.hivclinic.dto.request.BulkAppointmentStatusRequest;
+import com.hivclinic.dto.response.AppointmentListResponse;
 import com.hivclinic.dto.response.MessageResponse;
-import com.hivclinic.model.Appointment;
+import com.hivclinic.exception.SlotAlreadyBookedException;
 import com.hivclinic.service.AppointmentService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -51,6 +55,11 @@ public class AppointmentController {
                 logger.warn("Failed to book appointment: {}", response.getMessage());
                 return ResponseEntity.badRequest().body(response);
             }
+        } catch (SlotAlreadyBookedException e) {
+            logger.warn("Slot {} already booked, rejecting booking for patient: {}",
+                    request.getAvailabilitySlotId(), userPrincipal.getUsername());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(MessageResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error booking appointment for patient {}: {}", userPrincipal.getUsername(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -66,7 +75,7 @@ public class AppointmentController {
     public ResponseEntity<?> getMyAppointments(@AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
             logger.debug("Fetching appointments for patient: {}", userPrincipal.getUsername());
-            List<Appointment> appointments = appointmentService.getPatientAppointments(userPrincipal.getId());
+            List<AppointmentListResponse> appointments = appointmentService.getPatientAppointments(userPrincipal.getId());
             logger.info("Retrieved {} appointments for patient: {}", appointments.size(), userPrincipal.getUsername());
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
@@ -84,7 +93,7 @@ public class AppointmentController {
     public ResponseEntity<?> getUpcomingAppointments(@AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
             logger.debug("Fetching upcoming appointments for patient: {}", userPrincipal.getUsername());
-            List<Appointment> appointments = appointmentService.getPatientUpcomingAppointments(userPrincipal.getId());
+            List<AppointmentListResponse> appointments = appointmentService.getPatientUpcomingAppointments(userPrincipal.getId());
             logger.info("Retrieved {} upcoming appointments for patient: {}", appointments.size(), userPrincipal.getUsername());
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
@@ -102,7 +111,7 @@ public class AppointmentController {
     public ResponseEntity<?> getDoctorAppointments(@AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
             logger.debug("Fetching appointments for doctor: {}", userPrincipal.getUsername());
-            List<Appointment> appointments = appointmentService.getDoctorAppointments(userPrincipal.getId());
+            List<AppointmentListResponse> appointments = appointmentService.getDoctorAppointments(userPrincipal.getId());
             logger.info("Retrieved {} appointments for doctor: {}", appointments.size(), userPrincipal.getUsername());
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
@@ -112,6 +121,33 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Get one page of the doctor's appointments, newest first, optionally filtered by date range and status
+     */
+    @GetMapping("/doctor/my-appointments/page")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> getDoctorAppointmentPage(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            logger.debug("Fetching appointment page for doctor: {} - from: {}, to: {}, status: {}, limit: {}",
+                    userPrincipal.getUsername(), from, to, status, limit);
+            Map<String, Object> page = appointmentService.getDoctorAppointmentPage(
+                    userPrincipal.getId(), from, to, status, limit, cursor);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(MessageResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error getting doctor appointment page for {}: {}", userPrincipal.getUsername(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(MessageResponse.error("Failed to get appointments: " + e.getMessage()));
+        }
+    }
+
     /**
      * Cancel an appointment
      */
@@ -171,6 +207,28 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Update the status of several appointments at once (doctor only), returning a result per appointment
+     */
+    @PutMapping("/status/bulk")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<?> bulkUpdateAppointmentStatus(
+            @Valid @RequestBody BulkAppointmentStatusRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        try {
+            Map<String, Object> response = appointmentService.bulkUpdateAppointmentStatus(
+                    userPrincipal.getId(), request.getUpdates());
+            if (Boolean.TRUE.equals(response.get("success"))) {
+                return ResponseEntity.ok(response);
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } catch (Exception e) {
+            logger.error("Error bulk updating appointment status: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(MessageResponse.error("Failed to update appointment status: " + e.getMessage()));
+        }
+    }
+
     /**
      * Doctor accesses patient record for a specific appointment (only if appointment is not completed)
      */
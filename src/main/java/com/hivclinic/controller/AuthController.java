@@ -7,6 +7,7 @@ import com.hivclinic.dto.request.RegisterRequest;
 import com.hivclinic.dto.response.AuthResponse;
 import com.hivclinic.dto.response.MessageResponse;
 import com.hivclinic.dto.response.UserProfileResponse;
+import com.hivclinic.exception.TooManyLoginAttemptsException;
 import com.hivclinic.service.AuthService;
 import com.hivclinic.service.SessionStatusInfo;
 import com.hivclinic.service.UserSessionService;
@@ -86,6 +87,10 @@ public class AuthController {
             
             logger.info("User logged in successfully: {}", loginRequest.getUsername());
             return ResponseEntity.ok(response);
+        } catch (TooManyLoginAttemptsException e) {
+            logger.warn("Login throttled for username {}: {}", loginRequest.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(MessageResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.warn("Login failed for username {}: {}", loginRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
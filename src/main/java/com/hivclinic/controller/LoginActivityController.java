@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -149,27 +150,7 @@ public class LoginActivityController {
                         .body(MessageResponse.error("User not found"));
             }
             
-            User user = userOpt.get();
-            
-            // Get all login activities for the user
-            List<LoginActivity> allActivities = loginActivityService.getAllUserLoginActivities(user);
-            List<LoginActivity> successfulLogins = loginActivityService.getRecentSuccessfulLogins(user, Integer.MAX_VALUE);
-            List<LoginActivity> failedLogins = loginActivityService.getFailedLoginAttempts(user);
-            
-            // Calculate statistics
-            long totalAttempts = allActivities.size();
-            long successfulCount = successfulLogins.size();
-            long failedCount = failedLogins.size();
-            
-            Optional<LocalDateTime> lastLoginTime = loginActivityService.getLastLoginTime(user);
-            
-            // Create response data
-            var stats = new java.util.HashMap<String, Object>();
-            stats.put("totalAttempts", totalAttempts);
-            stats.put("successfulLogins", successfulCount);
-            stats.put("failedAttempts", failedCount);
-            stats.put("successRate", totalAttempts > 0 ? (double) successfulCount / totalAttempts * 100 : 0);
-            stats.put("lastLoginTime", lastLoginTime.orElse(null));
+            Map<String, Object> stats = loginActivityService.getLoginStats(userOpt.get());
             
             logger.debug("Retrieved login statistics for user: {}", userPrincipal.getUsername());
             return ResponseEntity.ok(MessageResponse.builder()
@@ -186,35 +167,29 @@ public class LoginActivityController {
     }
     
     /**
-     * Admin endpoint: Get all login activities with pagination
+     * Admin endpoint: Get all login activities, newest first, with keyset pagination.
+     * Pass nextCursor from the previous response to fetch the following page.
      */
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getAllLoginActivities(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer userId,
+            @RequestParam(required = false) String ipAddress,
+            @RequestParam(required = false) Boolean success,
             @RequestParam(defaultValue = "50") int size) {
         try {
-            logger.debug("Admin fetching all login activities - page: {}, size: {}", page, size);
-            
-            // For now, return a simple paginated response
-            // In a full implementation, you'd use Spring Data JPA Pageable
-            List<LoginActivity> allActivities = loginActivityService.getAllUserLoginActivities(null);
-            
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, allActivities.size());
-            
-            List<LoginActivity> pageActivities = allActivities.subList(startIndex, endIndex);
+            logger.debug("Admin fetching login activities - cursor: {}, userId: {}, ip: {}, success: {}, size: {}",
+                    cursor, userId, ipAddress, success, size);
             
-            var response = new java.util.HashMap<String, Object>();
-            response.put("content", pageActivities);
-            response.put("page", page);
-            response.put("size", size);
-            response.put("totalElements", allActivities.size());
-            response.put("totalPages", (int) Math.ceil((double) allActivities.size() / size));
+            Map<String, Object> response = loginActivityService.getLoginActivityPage(
+                    cursor, userId, ipAddress, success, size);
             
-            logger.debug("Retrieved {} login activities for admin", pageActivities.size());
+            logger.debug("Retrieved {} login activities for admin", ((List<?>) response.get("content")).size());
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(MessageResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching all login activities for admin: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
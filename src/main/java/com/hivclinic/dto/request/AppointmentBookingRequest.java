@@ -1,5 +1,6 @@
 package com.hivclinic.dto.request;
 
+import com.hivclinic.config.FlexibleDateTimeParser;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -7,8 +8,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * DTO for appointment booking requests with enhanced date/time parsing
@@ -18,15 +17,6 @@ import java.time.format.DateTimeParseException;
 @AllArgsConstructor
 public class AppointmentBookingRequest {
 
-    // Multiple formatters for flexible parsing
-    private static final DateTimeFormatter[] SUPPORTED_FORMATTERS = {
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
-        DateTimeFormatter.ISO_LOCAL_DATE_TIME
-    };
-
     @NotNull(message = "Doctor user ID is required")
     private Integer doctorUserId;
 
@@ -47,25 +37,9 @@ public class AppointmentBookingRequest {
             throw new IllegalArgumentException("Appointment date time is required");
         }
         
-        // Clean the input string
-        String cleanDateTimeStr = appointmentDateTime.trim();
-        
-        // Remove timezone indicators for local parsing
-        if (cleanDateTimeStr.endsWith("Z")) {
-            cleanDateTimeStr = cleanDateTimeStr.substring(0, cleanDateTimeStr.length() - 1);
-        }
-        
-        // Remove timezone offset patterns
-        cleanDateTimeStr = cleanDateTimeStr.replaceAll("[+-]\\d{2}:\\d{2}$", "");
-        cleanDateTimeStr = cleanDateTimeStr.replaceAll("[+-]\\d{4}$", "");
-        
-        // Try each formatter
-        for (DateTimeFormatter formatter : SUPPORTED_FORMATTERS) {
-            try {
-                return LocalDateTime.parse(cleanDateTimeStr, formatter);
-            } catch (DateTimeParseException e) {
-                // Continue to next formatter
-            }
+        LocalDateTime result = FlexibleDateTimeParser.parse(appointmentDateTime);
+        if (result != null) {
+            return result;
         }
         
         throw new IllegalArgumentException("Invalid datetime format: " + appointmentDateTime 
@@ -0,0 +1,40 @@
+package com.hivclinic.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for updating the status of several appointments in one request, e.g. when a doctor closes out a day
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAppointmentStatusRequest {
+
+    @NotEmpty(message = "At least one update is required")
+    @Size(max = 500, message = "At most 500 appointments can be updated at once")
+    @Valid
+    private List<Item> updates;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Appointment ID is required")
+        private Integer appointmentId;
+
+        @NotBlank(message = "Status is required")
+        private String status;
+
+        private String notes;
+    }
+}
@@ -0,0 +1,104 @@
+package com.hivclinic.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Appointment list item selected by a JPQL constructor expression.
+ * Keeps the JSON shape of the Appointment entity for the fields list views use,
+ * without loading or tracking the user, role and slot entities.
+ */
+@Data
+@NoArgsConstructor
+public class AppointmentListResponse {
+    private Integer appointmentId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime appointmentDateTime;
+
+    private Integer durationMinutes;
+    private String status;
+    private String appointmentNotes;
+    private String patientCancellationReason;
+    private String doctorCancellationReason;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    private UserSummary patientUser;
+    private UserSummary doctorUser;
+    private SlotSummary availabilitySlot;
+
+    public AppointmentListResponse(Integer appointmentId, LocalDateTime appointmentDateTime, Integer durationMinutes,
+                                   String status, String appointmentNotes, String patientCancellationReason,
+                                   String doctorCancellationReason, LocalDateTime createdAt,
+                                   Integer patientUserId, String patientUsername, String patientEmail,
+                                   String patientFirstName, String patientLastName,
+                                   Integer doctorUserId, String doctorUsername, String doctorEmail,
+                                   String doctorFirstName, String doctorLastName, String doctorSpecialty,
+                                   Integer availabilitySlotId, LocalDate slotDate, LocalTime startTime, LocalTime endTime) {
+        this.appointmentId = appointmentId;
+        this.appointmentDateTime = appointmentDateTime;
+        this.durationMinutes = durationMinutes;
+        this.status = status;
+        this.appointmentNotes = appointmentNotes;
+        this.patientCancellationReason = patientCancellationReason;
+        this.doctorCancellationReason = doctorCancellationReason;
+        this.createdAt = createdAt;
+        this.patientUser = new UserSummary(patientUserId, patientUsername, patientEmail,
+                patientFirstName, patientLastName, null);
+        this.doctorUser = new UserSummary(doctorUserId, doctorUsername, doctorEmail,
+                doctorFirstName, doctorLastName, doctorSpecialty);
+        this.availabilitySlot = availabilitySlotId != null
+                ? new SlotSummary(availabilitySlotId, slotDate, startTime, endTime)
+                : null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class UserSummary {
+        private Integer userId;
+        private String username;
+        private String email;
+        private String firstName;
+        private String lastName;
+        private String specialty;
+
+        public UserSummary(Integer userId, String username, String email,
+                           String firstName, String lastName, String specialty) {
+            this.userId = userId;
+            this.username = username;
+            this.email = email;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.specialty = specialty;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SlotSummary {
+        private Integer availabilitySlotId;
+
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate slotDate;
+
+        @JsonFormat(pattern = "HH:mm:ss")
+        private LocalTime startTime;
+
+        @JsonFormat(pattern = "HH:mm:ss")
+        private LocalTime endTime;
+
+        public SlotSummary(Integer availabilitySlotId, LocalDate slotDate, LocalTime startTime, LocalTime endTime) {
+            this.availabilitySlotId = availabilitySlotId;
+            this.slotDate = slotDate;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.hivclinic.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk appointment status update
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentStatusUpdateResult {
+    private Integer appointmentId;
+    private boolean success;
+    private String message;
+}
@@ -0,0 +1,25 @@
+package com.hivclinic.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat appointment row for list views, selected directly by JPQL constructor expressions
+ * so no entity graph is loaded or tracked
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSummaryResponse {
+    private Integer appointmentId;
+    private LocalDateTime appointmentDateTime;
+    private Integer durationMinutes;
+    private String status;
+    private String appointmentNotes;
+    private Integer patientUserId;
+    private String patientUsername;
+    private Integer availabilitySlotId;
+}
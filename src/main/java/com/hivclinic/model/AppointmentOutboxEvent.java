@@ -0,0 +1,66 @@
+package com.hivclinic.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Side effect of an appointment change, written in the same transaction as the change
+ * and carried out later by AppointmentOutboxDispatcher
+ */
+@Entity
+@Table(name = "AppointmentOutbox")
+@Data
+@NoArgsConstructor
+public class AppointmentOutboxEvent {
+
+    public static final String APPOINTMENT_BOOKED = "APPOINTMENT_BOOKED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "OutboxID")
+    private Long outboxId;
+
+    @Column(name = "AppointmentID", nullable = false)
+    private Integer appointmentId;
+
+    @Column(name = "EventType", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "ChangedByUserID")
+    private Integer changedByUserId;
+
+    @Column(name = "ChangeReason", columnDefinition = "NVARCHAR(MAX)")
+    private String changeReason;
+
+    @Column(name = "OccurredAt", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "NextAttemptAt", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "Attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "ProcessedAt")
+    private LocalDateTime processedAt;
+
+    // Set when retries are exhausted; the event is not claimed again until it is replayed
+    @Column(name = "FailedAt")
+    private LocalDateTime failedAt;
+
+    @Column(name = "LastError", length = 1000)
+    private String lastError;
+
+    @PrePersist
+    protected void onCreate() {
+        if (occurredAt == null) {
+            occurredAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = occurredAt;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.hivclinic.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-bounded lease on a scheduled job, so only one instance runs it at a time
+ */
+@Entity
+@Table(name = "SchedulerLocks")
+@Data
+@NoArgsConstructor
+public class SchedulerLock {
+
+    @Id
+    @Column(name = "JobName", length = 100)
+    private String jobName;
+
+    @Column(name = "LockedUntil", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "LockedAt", nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(name = "LockedBy", nullable = false)
+    private String lockedBy;
+}
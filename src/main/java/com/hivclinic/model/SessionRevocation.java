@@ -0,0 +1,39 @@
+package com.hivclinic.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revoked session, or minimum session version of a user, shared between instances for
+ * stateless session validation. Kept until every token it covers has expired.
+ */
+@Entity
+@Table(name = "SessionRevocations")
+@Data
+@NoArgsConstructor
+public class SessionRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "RevocationID")
+    private Long revocationId;
+
+    @Column(name = "SessionID", length = 64)
+    private String sessionId;
+
+    @Column(name = "UserID")
+    private Integer userId;
+
+    @Column(name = "MinVersion")
+    private Long minVersion;
+
+    @Column(name = "ExpiresAt", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set by the database, so every instance polls against the same clock
+    @Column(name = "CreatedAt", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
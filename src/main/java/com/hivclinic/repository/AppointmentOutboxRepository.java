@@ -0,0 +1,51 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.AppointmentOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repository for the appointment side-effect outbox
+ */
+@Repository
+public interface AppointmentOutboxRepository extends JpaRepository<AppointmentOutboxEvent, Long>, AppointmentOutboxRepositoryCustom {
+
+    @Modifying
+    @Query("UPDATE AppointmentOutboxEvent e SET e.processedAt = :processedAt, e.lastError = NULL " +
+           "WHERE e.outboxId IN :outboxIds")
+    int markProcessed(@Param("outboxIds") Collection<Long> outboxIds, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE AppointmentOutboxEvent e SET e.lastError = :error, e.nextAttemptAt = :nextAttemptAt " +
+           "WHERE e.outboxId = :outboxId")
+    int markFailed(@Param("outboxId") Long outboxId, @Param("error") String error,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE AppointmentOutboxEvent e SET e.lastError = :error, e.failedAt = :failedAt " +
+           "WHERE e.outboxId = :outboxId")
+    int markDead(@Param("outboxId") Long outboxId, @Param("error") String error,
+                 @Param("failedAt") LocalDateTime failedAt);
+
+    // Events whose last attempt was claimed but never reported back, e.g. when the dispatcher died
+    @Modifying
+    @Query("UPDATE AppointmentOutboxEvent e SET e.failedAt = :now " +
+           "WHERE e.processedAt IS NULL AND e.failedAt IS NULL AND e.attempts >= :maxAttempts " +
+           "AND e.nextAttemptAt <= :now")
+    int markExhaustedDead(@Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE AppointmentOutboxEvent e SET e.failedAt = NULL, e.attempts = 0, e.nextAttemptAt = :now " +
+           "WHERE e.processedAt IS NULL AND e.failedAt IS NOT NULL")
+    int replayDead(@Param("now") LocalDateTime now);
+
+    long countByProcessedAtIsNull();
+
+    long countByProcessedAtIsNullAndFailedAtIsNotNull();
+}
@@ -0,0 +1,23 @@
+package com.hivclinic.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentOutboxRepositoryCustom {
+
+    /**
+     * Claim up to {@code limit} due, unprocessed events that have not failed for good in one UPDATE by moving their next attempt to
+     * {@code leaseUntil}. Rows locked by another dispatcher are skipped, and events of a dispatcher
+     * that dies mid-batch become due again once the lease runs out.
+     */
+    List<ClaimedOutboxEvent> claimDueEvents(LocalDateTime now, LocalDateTime leaseUntil, int maxAttempts, int limit);
+
+    /**
+     * Outbox event returned by {@link #claimDueEvents}; attempts includes the current one
+     */
+    record ClaimedOutboxEvent(Long outboxId, Integer appointmentId, String eventType, Integer changedByUserId,
+                              String changeReason, LocalDateTime occurredAt, int attempts) {}
+}
@@ -0,0 +1,45 @@
+package com.hivclinic.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class AppointmentOutboxRepositoryImpl implements AppointmentOutboxRepositoryCustom {
+
+    // READPAST lets concurrent dispatchers claim disjoint batches instead of waiting on each other
+    private static final String CLAIM_SQL =
+            "UPDATE TOP (?) AppointmentOutbox WITH (ROWLOCK, READPAST) " +
+            "SET NextAttemptAt = ?, Attempts = Attempts + 1 " +
+            "OUTPUT inserted.OutboxID, inserted.AppointmentID, inserted.EventType, inserted.ChangedByUserID, " +
+            "inserted.ChangeReason, inserted.OccurredAt, inserted.Attempts " +
+            "WHERE ProcessedAt IS NULL AND FailedAt IS NULL AND NextAttemptAt <= ? AND Attempts < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ClaimedOutboxEvent> claimDueEvents(LocalDateTime now, LocalDateTime leaseUntil,
+                                                   int maxAttempts, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                ps -> {
+                    ps.setInt(1, limit);
+                    ps.setTimestamp(2, Timestamp.valueOf(leaseUntil));
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    ps.setInt(4, maxAttempts);
+                },
+                (rs, rowNum) -> new ClaimedOutboxEvent(
+                        rs.getLong("OutboxID"),
+                        rs.getInt("AppointmentID"),
+                        rs.getString("EventType"),
+                        (Integer) rs.getObject("ChangedByUserID"),
+                        rs.getString("ChangeReason"),
+                        rs.getTimestamp("OccurredAt").toLocalDateTime(),
+                        rs.getInt("Attempts")
+                ));
+    }
+}
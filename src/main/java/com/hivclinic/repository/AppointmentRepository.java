@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +17,7 @@ import java.util.Optional;
  * Repository interface for Appointment entity operations
  */
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Integer> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Integer>, AppointmentRepositoryCustom {
 
     /**
      * Find appointments by patient user with eager loading
@@ -122,4 +123,52 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Intege
            "WHERE a.doctorUser = :doctorUser AND a.patientUser = :patientUser " +
            "ORDER BY a.appointmentDateTime DESC")
     List<Appointment> findByDoctorUserAndPatientUser(@Param("doctorUser") User doctorUser, @Param("patientUser") User patientUser);
-}
\ No newline at end of file
+
+    /**
+     * Find [appointmentId, appointmentDateTime] of a doctor's non-cancelled appointments from a point in time
+     */
+    @Query("SELECT a.appointmentId, a.appointmentDateTime FROM Appointment a " +
+           "WHERE a.doctorUser.userId = :doctorUserId " +
+           "AND a.appointmentDateTime >= :from " +
+           "AND (a.status IS NULL OR a.status <> 'Cancelled')")
+    List<Object[]> findDoctorScheduleFrom(@Param("doctorUserId") Integer doctorUserId, @Param("from") LocalDateTime from);
+
+    /**
+     * Find [appointmentId, appointmentDateTime] of a patient's non-cancelled appointments from a point in time
+     */
+    @Query("SELECT a.appointmentId, a.appointmentDateTime FROM Appointment a " +
+           "WHERE a.patientUser.userId = :patientUserId " +
+           "AND a.appointmentDateTime >= :from " +
+           "AND (a.status IS NULL OR a.status <> 'Cancelled')")
+    List<Object[]> findPatientScheduleFrom(@Param("patientUserId") Integer patientUserId, @Param("from") LocalDateTime from);
+
+    /**
+     * Whether the doctor or the patient has another non-cancelled appointment within a time window
+     */
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a " +
+           "WHERE (a.doctorUser.userId = :doctorUserId OR a.patientUser.userId = :patientUserId) " +
+           "AND a.appointmentId <> :excludeAppointmentId " +
+           "AND a.appointmentDateTime BETWEEN :windowStart AND :windowEnd " +
+           "AND (a.status IS NULL OR a.status <> 'Cancelled')")
+    boolean existsConflictingAppointment(@Param("doctorUserId") Integer doctorUserId,
+                                         @Param("patientUserId") Integer patientUserId,
+                                         @Param("excludeAppointmentId") Integer excludeAppointmentId,
+                                         @Param("windowStart") LocalDateTime windowStart,
+                                         @Param("windowEnd") LocalDateTime windowEnd);
+
+    /**
+     * Find appointments by ID with patient and doctor loaded
+     */
+    @Query("SELECT a FROM Appointment a " +
+           "JOIN FETCH a.patientUser " +
+           "JOIN FETCH a.doctorUser " +
+           "WHERE a.appointmentId IN :appointmentIds")
+    List<Appointment> findAllWithUsersByIdIn(@Param("appointmentIds") Collection<Integer> appointmentIds);
+
+    /**
+     * Find [appointmentId, doctorUserId, patientUserId, status, appointmentDateTime] for several appointments
+     */
+    @Query("SELECT a.appointmentId, a.doctorUser.userId, a.patientUser.userId, a.status, a.appointmentDateTime " +
+           "FROM Appointment a WHERE a.appointmentId IN :appointmentIds")
+    List<Object[]> findStatusRowsByIdIn(@Param("appointmentIds") Collection<Integer> appointmentIds);
+}
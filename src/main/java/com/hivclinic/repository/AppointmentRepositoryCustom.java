@@ -0,0 +1,63 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.dto.response.AppointmentListResponse;
+import com.hivclinic.dto.response.AppointmentSummaryResponse;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentRepositoryCustom {
+
+    /**
+     * Gather everything a booking must validate in one round trip: the roles of both users,
+     * whether either already has a non-cancelled appointment in [windowStart, windowEnd], and the slot's owner and state.
+     */
+    BookingConflictCheck checkBookingConflicts(Integer patientUserId, Integer doctorUserId, Integer slotId,
+                                               LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    /**
+     * Seek-paginate a doctor's appointments, newest first, ordered by (appointmentDateTime, appointmentId).
+     * Returns rows strictly after the cursor; a null cursor starts from the newest row. Null filters are ignored.
+     */
+    List<AppointmentSummaryResponse> findDoctorAppointmentSummaries(Integer doctorUserId,
+                                                                    LocalDateTime from, LocalDateTime to, String status,
+                                                                    LocalDateTime beforeDateTime, Integer beforeId,
+                                                                    int limit);
+
+    /**
+     * All of a patient's appointments, newest first, as read-only list items.
+     * When upcomingAfter is set, only appointments after it are returned, soonest first.
+     */
+    List<AppointmentListResponse> findPatientAppointmentList(Integer patientUserId, LocalDateTime upcomingAfter);
+
+    /**
+     * All of a doctor's appointments, newest first, as read-only list items
+     */
+    List<AppointmentListResponse> findDoctorAppointmentList(Integer doctorUserId);
+
+    /**
+     * Apply status updates in a single JDBC batch. Each row is only updated if it still belongs to the
+     * given doctor; the returned counts are in the order of the updates.
+     */
+    int[] batchUpdateStatus(List<StatusUpdate> updates);
+
+    /**
+     * Status change of one appointment; null notes leave the existing notes unchanged
+     */
+    record StatusUpdate(Integer appointmentId, Integer doctorUserId, String status, String notes,
+                        LocalDateTime updatedAt) {}
+
+    /**
+     * Result of a booking conflict check. Role names and slot fields are null when the row does not exist.
+     */
+    record BookingConflictCheck(String patientRole, String doctorRole,
+                                boolean patientConflict, boolean doctorConflict,
+                                Integer slotDoctorUserId, Boolean slotBooked) {
+
+        public boolean slotExists() {
+            return slotDoctorUserId != null;
+        }
+    }
+}
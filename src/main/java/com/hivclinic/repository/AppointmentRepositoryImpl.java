@@ -0,0 +1,168 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.dto.response.AppointmentListResponse;
+import com.hivclinic.dto.response.AppointmentSummaryResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class AppointmentRepositoryImpl implements AppointmentRepositoryCustom {
+
+    private static final String BOOKING_CONFLICT_SQL =
+            "SELECT " +
+            "(SELECT r.RoleName FROM Users u JOIN Roles r ON r.RoleID = u.RoleID WHERE u.UserID = ?) AS PatientRole, " +
+            "(SELECT r.RoleName FROM Users u JOIN Roles r ON r.RoleID = u.RoleID WHERE u.UserID = ?) AS DoctorRole, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM Appointments a WHERE a.PatientUserID = ? " +
+            "AND a.AppointmentDateTime BETWEEN ? AND ? AND (a.Status IS NULL OR a.Status <> 'Cancelled')) THEN 1 ELSE 0 END AS PatientConflict, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM Appointments a WHERE a.DoctorUserID = ? " +
+            "AND a.AppointmentDateTime BETWEEN ? AND ? AND (a.Status IS NULL OR a.Status <> 'Cancelled')) THEN 1 ELSE 0 END AS DoctorConflict, " +
+            "s.DoctorUserID AS SlotDoctorUserID, s.IsBooked AS SlotIsBooked " +
+            "FROM (SELECT 1 AS Probe) p " +
+            "LEFT JOIN DoctorAvailabilitySlots s ON s.AvailabilitySlotID = ?";
+
+    private static final String SUMMARY_SELECT_JPQL =
+            "SELECT new com.hivclinic.dto.response.AppointmentSummaryResponse(" +
+            "a.appointmentId, a.appointmentDateTime, a.durationMinutes, a.status, a.appointmentNotes, " +
+            "p.userId, p.username, s.availabilitySlotId) " +
+            "FROM Appointment a JOIN a.patientUser p LEFT JOIN a.availabilitySlot s ";
+
+    // Doctor names and specialty come from DoctorProfiles when present, as the entity-based views did
+    private static final String LIST_SELECT_JPQL =
+            "SELECT new com.hivclinic.dto.response.AppointmentListResponse(" +
+            "a.appointmentId, a.appointmentDateTime, a.durationMinutes, a.status, a.appointmentNotes, " +
+            "a.patientCancellationReason, a.doctorCancellationReason, a.createdAt, " +
+            "p.userId, p.username, p.email, p.firstName, p.lastName, " +
+            "d.userId, d.username, d.email, COALESCE(dp.firstName, d.firstName), COALESCE(dp.lastName, d.lastName), " +
+            "COALESCE(sp.specialtyName, d.specialty), " +
+            "s.availabilitySlotId, s.slotDate, s.startTime, s.endTime) " +
+            "FROM Appointment a JOIN a.patientUser p JOIN a.doctorUser d " +
+            "LEFT JOIN DoctorProfile dp ON dp.user = d LEFT JOIN dp.specialty sp " +
+            "LEFT JOIN a.availabilitySlot s ";
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE Appointments SET Status = ?, AppointmentNotes = COALESCE(?, AppointmentNotes), UpdatedAt = ? " +
+            "WHERE AppointmentID = ? AND DoctorUserID = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Override
+    public BookingConflictCheck checkBookingConflicts(Integer patientUserId, Integer doctorUserId, Integer slotId,
+                                                      LocalDateTime windowStart, LocalDateTime windowEnd) {
+        Timestamp start = Timestamp.valueOf(windowStart);
+        Timestamp end = Timestamp.valueOf(windowEnd);
+
+        return jdbcTemplate.queryForObject(BOOKING_CONFLICT_SQL, (rs, rowNum) -> new BookingConflictCheck(
+                        rs.getString("PatientRole"),
+                        rs.getString("DoctorRole"),
+                        rs.getInt("PatientConflict") == 1,
+                        rs.getInt("DoctorConflict") == 1,
+                        rs.getObject("SlotDoctorUserID", Integer.class),
+                        rs.getObject("SlotIsBooked", Boolean.class)),
+                patientUserId, doctorUserId,
+                patientUserId, start, end,
+                doctorUserId, start, end,
+                slotId);
+    }
+
+    @Override
+    public List<AppointmentSummaryResponse> findDoctorAppointmentSummaries(Integer doctorUserId,
+                                                                           LocalDateTime from, LocalDateTime to, String status,
+                                                                           LocalDateTime beforeDateTime, Integer beforeId,
+                                                                           int limit) {
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT_JPQL).append("WHERE a.doctorUser.userId = :doctorUserId");
+        if (from != null) {
+            jpql.append(" AND a.appointmentDateTime >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND a.appointmentDateTime < :to");
+        }
+        if (status != null) {
+            jpql.append(" AND a.status = :status");
+        }
+        if (beforeDateTime != null && beforeId != null) {
+            jpql.append(" AND (a.appointmentDateTime < :beforeDateTime " +
+                    "OR (a.appointmentDateTime = :beforeDateTime AND a.appointmentId < :beforeId))");
+        }
+        jpql.append(" ORDER BY a.appointmentDateTime DESC, a.appointmentId DESC");
+
+        TypedQuery<AppointmentSummaryResponse> query =
+                entityManager.createQuery(jpql.toString(), AppointmentSummaryResponse.class);
+        query.setParameter("doctorUserId", doctorUserId);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (beforeDateTime != null && beforeId != null) {
+            query.setParameter("beforeDateTime", beforeDateTime);
+            query.setParameter("beforeId", beforeId);
+        }
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<AppointmentListResponse> findPatientAppointmentList(Integer patientUserId, LocalDateTime upcomingAfter) {
+        String jpql = LIST_SELECT_JPQL + "WHERE p.userId = :patientUserId" +
+                (upcomingAfter != null
+                        ? " AND a.appointmentDateTime > :after ORDER BY a.appointmentDateTime ASC"
+                        : " ORDER BY a.appointmentDateTime DESC");
+
+        TypedQuery<AppointmentListResponse> query = entityManager.createQuery(jpql, AppointmentListResponse.class);
+        query.setParameter("patientUserId", patientUserId);
+        if (upcomingAfter != null) {
+            query.setParameter("after", upcomingAfter);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<AppointmentListResponse> findDoctorAppointmentList(Integer doctorUserId) {
+        String jpql = LIST_SELECT_JPQL + "WHERE d.userId = :doctorUserId ORDER BY a.appointmentDateTime DESC";
+        return entityManager.createQuery(jpql, AppointmentListResponse.class)
+                .setParameter("doctorUserId", doctorUserId)
+                .getResultList();
+    }
+
+    @Override
+    public int[] batchUpdateStatus(List<StatusUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+
+        return jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StatusUpdate update = updates.get(i);
+                ps.setString(1, update.status());
+                ps.setString(2, update.notes());
+                ps.setTimestamp(3, Timestamp.valueOf(update.updatedAt()));
+                ps.setInt(4, update.appointmentId());
+                ps.setInt(5, update.doctorUserId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+    }
+}
@@ -13,7 +13,7 @@ import java.util.List;
  * Repository interface for AppointmentStatusHistory entity operations
  */
 @Repository
-public interface AppointmentStatusHistoryRepository extends JpaRepository<AppointmentStatusHistory, Integer> {
+public interface AppointmentStatusHistoryRepository extends JpaRepository<AppointmentStatusHistory, Integer>, AppointmentStatusHistoryRepositoryCustom {
 
     /**
      * Find status history by appointment ordered by changed date descending
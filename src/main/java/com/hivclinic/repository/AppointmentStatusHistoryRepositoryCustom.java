@@ -0,0 +1,15 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.AppointmentStatusHistory;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AppointmentStatusHistoryRepositoryCustom {
+
+    /**
+     * Insert status history entries in a single JDBC batch and return the number of rows written
+     */
+    int batchInsert(List<AppointmentStatusHistory> entries);
+}
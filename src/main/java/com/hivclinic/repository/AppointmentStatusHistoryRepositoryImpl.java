@@ -0,0 +1,52 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.AppointmentStatusHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class AppointmentStatusHistoryRepositoryImpl implements AppointmentStatusHistoryRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO AppointmentStatusHistory (AppointmentID, OldStatus, NewStatus, ChangeReason, ChangedAt, ChangedByUserID) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchInsert(List<AppointmentStatusHistory> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getAppointment().getAppointmentId());
+            ps.setString(2, entry.getOldStatus());
+            ps.setString(3, entry.getNewStatus());
+            ps.setString(4, entry.getChangeReason());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getChangedAt() != null ? entry.getChangedAt() : LocalDateTime.now()));
+            if (entry.getChangedByUser() != null && entry.getChangedByUser().getUserId() != null) {
+                ps.setInt(6, entry.getChangedByUser().getUserId());
+            } else {
+                ps.setNull(6, Types.INTEGER);
+            }
+        });
+
+        int inserted = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) is reported by some drivers for successful batch statements
+                inserted += count > 0 ? count : (count == Statement.SUCCESS_NO_INFO ? 1 : 0);
+            }
+        }
+        return inserted;
+    }
+}
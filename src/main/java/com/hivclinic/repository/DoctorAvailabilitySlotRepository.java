@@ -3,11 +3,13 @@ package com.hivclinic.repository;
 import com.hivclinic.model.DoctorAvailabilitySlot;
 import com.hivclinic.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -44,4 +46,16 @@ public interface DoctorAvailabilitySlotRepository extends JpaRepository<DoctorAv
         @Param("startTime") LocalTime startTime,
         @Param("endTime") LocalTime endTime
     );
-}
\ No newline at end of file
+    
+    // Atomically mark a free slot of the doctor as booked; returns 0 if another booking got there first
+    @Modifying
+    @Query("UPDATE DoctorAvailabilitySlot s SET s.isBooked = true, s.updatedAt = :now " +
+           "WHERE s.availabilitySlotId = :slotId " +
+           "AND s.doctorUser.userId = :doctorUserId " +
+           "AND (s.isBooked = false OR s.isBooked IS NULL)")
+    int reserveSlot(
+        @Param("slotId") Integer slotId,
+        @Param("doctorUserId") Integer doctorUserId,
+        @Param("now") LocalDateTime now
+    );
+}
@@ -30,4 +30,4 @@ public interface DoctorProfileRepository extends JpaRepository<DoctorProfile, In
      */
     @Query("SELECT dp FROM DoctorProfile dp WHERE dp.user.username NOT LIKE 'dummy_%'")
     List<DoctorProfile> findAllNonDummyDoctorProfiles();
-}
\ No newline at end of file
+}
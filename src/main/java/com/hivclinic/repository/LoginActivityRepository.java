@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LoginActivityRepository extends JpaRepository<LoginActivity, Long> {
+public interface LoginActivityRepository extends JpaRepository<LoginActivity, Long>, LoginActivityRepositoryCustom {
     
     /**
      * Find all login activities for a user, ordered by most recent first
@@ -61,6 +61,15 @@ public interface LoginActivityRepository extends JpaRepository<LoginActivity, Lo
     List<LoginActivity> findByUserAndAttemptTimeBetweenOrderByAttemptTimeDesc(
             User user, LocalDateTime startDate, LocalDateTime endDate);
     
+    /**
+     * Aggregate login statistics for a user in one query: [total attempts, successful logins, last successful login]
+     */
+    @Query("SELECT COUNT(la), " +
+           "COALESCE(SUM(CASE WHEN la.isSuccess = true THEN 1 ELSE 0 END), 0), " +
+           "MAX(CASE WHEN la.isSuccess = true THEN la.attemptTime ELSE NULL END) " +
+           "FROM LoginActivity la WHERE la.user = :user")
+    List<Object[]> getLoginStatsForUser(@Param("user") User user);
+    
     /**
      * Check if there are recent failed attempts from the same IP
      */
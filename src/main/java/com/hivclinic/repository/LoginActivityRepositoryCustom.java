@@ -0,0 +1,31 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.LoginActivity;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LoginActivityRepositoryCustom {
+
+    /**
+     * Insert login activity rows in a single JDBC batch.
+     * Only the user ID of the attached user is used, so references are sufficient.
+     */
+    int batchInsert(List<LoginActivity> activities);
+
+    /**
+     * Seek-paginate login activity, newest first, ordered by (AttemptTime, LogID).
+     * Returns rows strictly after the given cursor; a null cursor starts from the newest row.
+     * Null filters are ignored.
+     */
+    List<LoginActivityRow> findPageBefore(LocalDateTime beforeTime, Long beforeId,
+                                          Integer userId, String ipAddress, Boolean success, int limit);
+
+    /**
+     * Flat login activity row for the admin feed, without loading the user entity
+     */
+    record LoginActivityRow(Long logId, Integer userId, String usernameAttempted, LocalDateTime attemptTime,
+                            Boolean isSuccess, String ipAddress, String userAgent) {}
+}
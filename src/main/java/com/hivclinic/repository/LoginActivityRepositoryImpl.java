@@ -0,0 +1,101 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.LoginActivity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class LoginActivityRepositoryImpl implements LoginActivityRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO LoginActivity (UserID, UsernameAttempted, AttemptTime, IsSuccess, IPAddress, UserAgent) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String PAGE_SELECT_SQL =
+            "SELECT TOP (?) LogID, UserID, UsernameAttempted, AttemptTime, IsSuccess, IPAddress, UserAgent " +
+            "FROM LoginActivity WHERE 1 = 1";
+
+    private static final String PAGE_ORDER_SQL = " ORDER BY AttemptTime DESC, LogID DESC";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchInsert(List<LoginActivity> activities) {
+        if (activities.isEmpty()) {
+            return 0;
+        }
+
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, activities, activities.size(), (ps, activity) -> {
+            if (activity.getUser() != null && activity.getUser().getUserId() != null) {
+                ps.setInt(1, activity.getUser().getUserId());
+            } else {
+                ps.setNull(1, Types.INTEGER);
+            }
+            ps.setString(2, activity.getUsernameAttempted());
+            LocalDateTime attemptTime = activity.getAttemptTime() != null ? activity.getAttemptTime() : LocalDateTime.now();
+            ps.setTimestamp(3, Timestamp.valueOf(attemptTime));
+            ps.setBoolean(4, Boolean.TRUE.equals(activity.getIsSuccess()));
+            ps.setString(5, activity.getIpAddress());
+            ps.setString(6, activity.getUserAgent());
+        });
+
+        int inserted = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                inserted += count > 0 ? count : (count == Statement.SUCCESS_NO_INFO ? 1 : 0);
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<LoginActivityRow> findPageBefore(LocalDateTime beforeTime, Long beforeId,
+                                                 Integer userId, String ipAddress, Boolean success, int limit) {
+        StringBuilder sql = new StringBuilder(PAGE_SELECT_SQL);
+        List<Object> params = new ArrayList<>();
+        params.add(limit);
+
+        // Only append the filters that are set, so each combination gets its own index-friendly plan
+        if (userId != null) {
+            sql.append(" AND UserID = ?");
+            params.add(userId);
+        }
+        if (ipAddress != null) {
+            sql.append(" AND IPAddress = ?");
+            params.add(ipAddress);
+        }
+        if (success != null) {
+            sql.append(" AND IsSuccess = ?");
+            params.add(success);
+        }
+        if (beforeTime != null && beforeId != null) {
+            sql.append(" AND (AttemptTime < ? OR (AttemptTime = ? AND LogID < ?))");
+            Timestamp cursorTime = Timestamp.valueOf(beforeTime);
+            params.add(cursorTime);
+            params.add(cursorTime);
+            params.add(beforeId);
+        }
+        sql.append(PAGE_ORDER_SQL);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Timestamp attemptTime = rs.getTimestamp("AttemptTime");
+            return new LoginActivityRow(
+                    rs.getLong("LogID"),
+                    rs.getObject("UserID", Integer.class),
+                    rs.getString("UsernameAttempted"),
+                    attemptTime != null ? attemptTime.toLocalDateTime() : null,
+                    rs.getBoolean("IsSuccess"),
+                    rs.getString("IPAddress"),
+                    rs.getString("UserAgent"));
+        }, params.toArray());
+    }
+}
@@ -0,0 +1,60 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.Notification;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Insert notifications in a single JDBC batch and return the number of rows written.
+     * Generated IDs are not read back.
+     */
+    int batchInsert(List<Notification> notifications);
+
+    /**
+     * Mark up to {@code limit} unsent notifications scheduled before {@code dueBefore} as sent in one UPDATE,
+     * returning the rows it changed. Rows locked by another writer are skipped for this run.
+     */
+    List<SentNotification> markDueAsSent(LocalDateTime dueBefore, LocalDateTime sentAt, int limit);
+
+    /**
+     * Mark the given notifications sent if they are still unsent and due by {@code sentAt}, returning the rows it changed
+     */
+    List<SentNotification> markSent(Collection<Integer> notificationIds, LocalDateTime sentAt);
+
+    /**
+     * Up to {@code limit} unsent notifications ordered by (ScheduledFor, NotificationID) that come after
+     * ({@code after}, {@code afterId}) and are scheduled no later than {@code upTo}, earliest first
+     */
+    List<PendingNotification> findUnsentScheduledBetween(LocalDateTime after, int afterId, LocalDateTime upTo, int limit);
+
+    /**
+     * Up to {@code limit} unsent scheduled notifications with an ID above {@code afterId}, lowest ID first
+     */
+    List<PendingNotification> findUnsentScheduledAfterId(int afterId, int limit);
+
+    /**
+     * Highest notification ID written so far, or 0 if there are none
+     */
+    int findMaxNotificationId();
+
+    /**
+     * Delete up to {@code limit} notifications sent before {@code cutoff} in one statement, returning the number deleted
+     */
+    int deleteSentBefore(LocalDateTime cutoff, int limit);
+
+    /**
+     * Notification marked sent by {@link #markDueAsSent}
+     */
+    record SentNotification(Integer notificationId, Integer userId) {}
+
+    /**
+     * Unsent scheduled notification, as loaded for in-memory scheduling
+     */
+    record PendingNotification(Integer notificationId, LocalDateTime scheduledFor) {}
+}
@@ -0,0 +1,160 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.Notification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO Notifications (UserID, Type, Title, Message, IsRead, status, Priority, " +
+            "RelatedEntityID, RelatedEntityType, ScheduledFor, SentAt, CreatedAt, UpdatedAt) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Seeks idx_notifications_due, which only holds unsent scheduled rows
+    private static final String MARK_DUE_SQL =
+            "UPDATE TOP (?) Notifications WITH (ROWLOCK, READPAST) " +
+            "SET SentAt = ?, UpdatedAt = ? " +
+            "OUTPUT inserted.NotificationID, inserted.UserID " +
+            "WHERE ScheduledFor IS NOT NULL AND SentAt IS NULL AND ScheduledFor < ?";
+
+    private static final String MARK_SENT_SQL_PREFIX =
+            "UPDATE Notifications SET SentAt = ?, UpdatedAt = ? " +
+            "OUTPUT inserted.NotificationID, inserted.UserID " +
+            "WHERE SentAt IS NULL AND ScheduledFor <= ? AND NotificationID IN (";
+
+    private static final String FIND_UNSENT_BETWEEN_SQL =
+            "SELECT TOP (?) NotificationID, ScheduledFor FROM Notifications " +
+            "WHERE ScheduledFor IS NOT NULL AND SentAt IS NULL AND ScheduledFor >= ? AND ScheduledFor <= ? " +
+            "AND (ScheduledFor > ? OR NotificationID > ?) " +
+            "ORDER BY ScheduledFor, NotificationID";
+
+    private static final String FIND_UNSENT_AFTER_ID_SQL =
+            "SELECT TOP (?) NotificationID, ScheduledFor FROM Notifications " +
+            "WHERE NotificationID > ? AND ScheduledFor IS NOT NULL AND SentAt IS NULL " +
+            "ORDER BY NotificationID";
+
+    // SQL Server allows 2100 parameters per statement
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    private static final String DELETE_SENT_BEFORE_SQL =
+            "DELETE TOP (?) FROM Notifications WHERE SentAt IS NOT NULL AND SentAt < ?";
+
+    private static final RowMapper<PendingNotification> PENDING_ROW_MAPPER = (rs, rowNum) ->
+            new PendingNotification(rs.getInt("NotificationID"), rs.getTimestamp("ScheduledFor").toLocalDateTime());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchInsert(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, notifications, notifications.size(), (ps, notification) -> {
+            ps.setInt(1, notification.getUserId());
+            ps.setString(2, notification.getType().name());
+            ps.setString(3, notification.getTitle());
+            ps.setString(4, notification.getMessage());
+            ps.setBoolean(5, Boolean.TRUE.equals(notification.getIsRead()));
+            ps.setString(6, notification.getStatus());
+            ps.setString(7, notification.getPriority());
+            if (notification.getRelatedEntityId() != null) {
+                ps.setInt(8, notification.getRelatedEntityId());
+            } else {
+                ps.setNull(8, Types.INTEGER);
+            }
+            ps.setString(9, notification.getRelatedEntityType());
+            ps.setTimestamp(10, toTimestamp(notification.getScheduledFor()));
+            ps.setTimestamp(11, toTimestamp(notification.getSentAt()));
+            ps.setTimestamp(12, now);
+            ps.setTimestamp(13, now);
+        });
+
+        int inserted = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) is reported by some drivers for successful batch statements
+                inserted += count > 0 ? count : (count == Statement.SUCCESS_NO_INFO ? 1 : 0);
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<SentNotification> markDueAsSent(LocalDateTime dueBefore, LocalDateTime sentAt, int limit) {
+        Timestamp sentAtTimestamp = Timestamp.valueOf(sentAt);
+        return jdbcTemplate.query(MARK_DUE_SQL,
+                ps -> {
+                    ps.setInt(1, limit);
+                    ps.setTimestamp(2, sentAtTimestamp);
+                    ps.setTimestamp(3, sentAtTimestamp);
+                    ps.setTimestamp(4, Timestamp.valueOf(dueBefore));
+                },
+                (rs, rowNum) -> new SentNotification(rs.getInt("NotificationID"), rs.getInt("UserID")));
+    }
+
+    @Override
+    public List<SentNotification> markSent(Collection<Integer> notificationIds, LocalDateTime sentAt) {
+        List<SentNotification> sent = new ArrayList<>(notificationIds.size());
+        List<Integer> ids = new ArrayList<>(notificationIds);
+        Timestamp sentAtTimestamp = Timestamp.valueOf(sentAt);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size()));
+            String sql = MARK_SENT_SQL_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            sent.addAll(jdbcTemplate.query(sql,
+                    ps -> {
+                        ps.setTimestamp(1, sentAtTimestamp);
+                        ps.setTimestamp(2, sentAtTimestamp);
+                        ps.setTimestamp(3, sentAtTimestamp);
+                        for (int i = 0; i < chunk.size(); i++) {
+                            ps.setInt(i + 4, chunk.get(i));
+                        }
+                    },
+                    (rs, rowNum) -> new SentNotification(rs.getInt("NotificationID"), rs.getInt("UserID"))));
+        }
+        return sent;
+    }
+
+    @Override
+    public List<PendingNotification> findUnsentScheduledBetween(LocalDateTime after, int afterId,
+                                                                LocalDateTime upTo, int limit) {
+        Timestamp afterTimestamp = Timestamp.valueOf(after);
+        return jdbcTemplate.query(FIND_UNSENT_BETWEEN_SQL, PENDING_ROW_MAPPER,
+                limit, afterTimestamp, Timestamp.valueOf(upTo), afterTimestamp, afterId);
+    }
+
+    @Override
+    public List<PendingNotification> findUnsentScheduledAfterId(int afterId, int limit) {
+        return jdbcTemplate.query(FIND_UNSENT_AFTER_ID_SQL, PENDING_ROW_MAPPER, limit, afterId);
+    }
+
+    @Override
+    public int findMaxNotificationId() {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(NotificationID) FROM Notifications", Integer.class);
+        return maxId != null ? maxId : 0;
+    }
+
+    @Override
+    public int deleteSentBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_SENT_BEFORE_SQL, limit, Timestamp.valueOf(cutoff));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
@@ -5,9 +5,11 @@ import com.hivclinic.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository interface for PatientProfile entity
@@ -29,4 +31,10 @@ public interface PatientProfileRepository extends JpaRepository<PatientProfile,
      */
     @Query("SELECT pp FROM PatientProfile pp WHERE pp.user.username NOT LIKE 'dummy_%'")
     List<PatientProfile> findAllNonDummyPatientProfiles();
-}
\ No newline at end of file
+
+    /**
+     * Find [userId, isPrivate] for the profiles of several patients
+     */
+    @Query("SELECT pp.user.userId, pp.isPrivate FROM PatientProfile pp WHERE pp.user.userId IN :userIds")
+    List<Object[]> findPrivacyFlagsByUserIds(@Param("userIds") Collection<Integer> userIds);
+}
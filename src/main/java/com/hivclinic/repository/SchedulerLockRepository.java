@@ -0,0 +1,12 @@
+package com.hivclinic.repository;
+
+import com.hivclinic.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for scheduled job leases
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String>, SchedulerLockRepositoryCustom {
+}
@@ -0,0 +1,19 @@
+package com.hivclinic.repository;
+
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchedulerLockRepositoryCustom {
+
+    /**
+     * Take the lease on a job for {@code lockAtMostForSeconds} if nobody holds an unexpired one.
+     * Times come from the database clock, so instances with skewed clocks agree on expiry.
+     */
+    boolean tryAcquire(String jobName, String owner, long lockAtMostForSeconds);
+
+    /**
+     * Give up a lease held by {@code owner}, keeping it until at least {@code lockAtLeastForSeconds}
+     * after it was taken so instances whose schedules fire slightly later skip the same run
+     */
+    void release(String jobName, String owner, long lockAtLeastForSeconds);
+}
@@ -0,0 +1,46 @@
+package com.hivclinic.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class SchedulerLockRepositoryImpl implements SchedulerLockRepositoryCustom {
+
+    private static final String TAKE_EXPIRED_SQL =
+            "UPDATE SchedulerLocks SET LockedUntil = DATEADD(SECOND, ?, CURRENT_TIMESTAMP), " +
+            "LockedAt = CURRENT_TIMESTAMP, LockedBy = ? " +
+            "WHERE JobName = ? AND LockedUntil <= CURRENT_TIMESTAMP";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO SchedulerLocks (JobName, LockedUntil, LockedAt, LockedBy) " +
+            "VALUES (?, DATEADD(SECOND, ?, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP, ?)";
+
+    private static final String RELEASE_SQL =
+            "UPDATE SchedulerLocks SET LockedUntil = CASE " +
+            "WHEN DATEADD(SECOND, ?, LockedAt) > CURRENT_TIMESTAMP THEN DATEADD(SECOND, ?, LockedAt) " +
+            "ELSE CURRENT_TIMESTAMP END " +
+            "WHERE JobName = ? AND LockedBy = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryAcquire(String jobName, String owner, long lockAtMostForSeconds) {
+        if (jdbcTemplate.update(TAKE_EXPIRED_SQL, lockAtMostForSeconds, owner, jobName) > 0) {
+            return true;
+        }
+        try {
+            // First run of this job anywhere; the primary key lets only one instance create the row
+            return jdbcTemplate.update(INSERT_SQL, jobName, lockAtMostForSeconds, owner) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String jobName, String owner, long lockAtLeastForSeconds) {
+        jdbcTemplate.update(RELEASE_SQL, lockAtLeastForSeconds, lockAtLeastForSeconds, jobName, owner);
+    }
+}
@@ -6,11 +6,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, UserRepositoryCustom {
     
     Optional<User> findByUsername(String username);
     
@@ -24,6 +25,12 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT u FROM User u JOIN FETCH u.role WHERE u.userId = :userId")
     Optional<User> findByUserIdWithRole(@Param("userId") Integer userId);
 
+    /**
+     * Resolve user IDs for a set of usernames in one query, rows are [userId, username]
+     */
+    @Query("SELECT u.userId, u.username FROM User u WHERE u.username IN :usernames")
+    List<Object[]> findUserIdsByUsernames(@Param("usernames") Collection<String> usernames);
+
     @Query("SELECT COUNT(u) FROM User u JOIN u.role r WHERE r.roleName = :roleName")
     long countByRoleName(@Param("roleName") String roleName);
 
@@ -0,0 +1,15 @@
+package com.hivclinic.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Repository
+public interface UserRepositoryCustom {
+
+    /**
+     * Move LastLoginAt forward for several users in a single JDBC batch
+     */
+    int batchUpdateLastLoginAt(Map<Integer, LocalDateTime> lastLoginByUserId);
+}
@@ -0,0 +1,45 @@
+package com.hivclinic.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final String UPDATE_LAST_LOGIN_SQL =
+            "UPDATE Users SET LastLoginAt = ? WHERE UserID = ? AND (LastLoginAt IS NULL OR LastLoginAt < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchUpdateLastLoginAt(Map<Integer, LocalDateTime> lastLoginByUserId) {
+        if (lastLoginByUserId.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<Integer, LocalDateTime>> entries = new ArrayList<>(lastLoginByUserId.entrySet());
+        int[][] results = jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN_SQL, entries, entries.size(), (ps, entry) -> {
+            Timestamp lastLogin = Timestamp.valueOf(entry.getValue());
+            ps.setTimestamp(1, lastLogin);
+            ps.setInt(2, entry.getKey());
+            ps.setTimestamp(3, lastLogin);
+        });
+
+        int updated = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                updated += count > 0 ? count : (count == Statement.SUCCESS_NO_INFO ? 1 : 0);
+            }
+        }
+        return updated;
+    }
+}
@@ -15,7 +15,7 @@ import java.util.Optional;
  * Repository interface for UserSession entity
  */
 @Repository
-public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
+public interface UserSessionRepository extends JpaRepository<UserSession, Long>, UserSessionRepositoryCustom {
     
     /**
      * Find active session by session token
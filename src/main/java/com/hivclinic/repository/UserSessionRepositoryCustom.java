@@ -0,0 +1,31 @@
+package com.hivclinic.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserSessionRepositoryCustom {
+
+    /**
+     * Apply coalesced session activity updates in a single JDBC batch.
+     * A row is only moved forward, never back to an older activity time.
+     */
+    int batchUpdateActivity(List<SessionActivityUpdate> updates);
+
+    /**
+     * Deactivate up to {@code limit} expired active sessions in one UPDATE and return the rows it changed
+     */
+    List<ExpiredSession> expireSessions(LocalDateTime now, int limit);
+
+    /**
+     * Latest known activity for one session
+     */
+    record SessionActivityUpdate(Long sessionId, LocalDateTime lastActivityAt, LocalDateTime expiresAt) {}
+
+    /**
+     * Session deactivated by {@link #expireSessions}
+     */
+    record ExpiredSession(Long sessionId, Integer userId, String username, String ipAddress, String sessionToken) {}
+}
@@ -0,0 +1,69 @@
+package com.hivclinic.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class UserSessionRepositoryImpl implements UserSessionRepositoryCustom {
+
+    private static final String UPDATE_ACTIVITY_SQL =
+            "UPDATE UserSessions SET LastActivityAt = ?, ExpiresAt = ? " +
+            "WHERE SessionID = ? AND IsActive = 1 AND LastActivityAt < ?";
+
+    // UPDATE TOP keeps each statement below SQL Server's lock escalation threshold;
+    // READPAST lets instances expiring at the same time take disjoint rows instead of waiting on each other
+    private static final String EXPIRE_SESSIONS_SQL =
+            "UPDATE TOP (?) s SET s.IsActive = 0 " +
+            "OUTPUT inserted.SessionID, inserted.UserID, u.Username, inserted.IPAddress, inserted.SessionToken " +
+            "FROM UserSessions s WITH (ROWLOCK, READPAST) JOIN Users u ON u.UserID = s.UserID " +
+            "WHERE s.IsActive = 1 AND s.ExpiresAt < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchUpdateActivity(List<SessionActivityUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        int[][] results = jdbcTemplate.batchUpdate(UPDATE_ACTIVITY_SQL, updates, updates.size(), (ps, update) -> {
+            Timestamp lastActivity = Timestamp.valueOf(update.lastActivityAt());
+            ps.setTimestamp(1, lastActivity);
+            ps.setTimestamp(2, Timestamp.valueOf(update.expiresAt()));
+            ps.setLong(3, update.sessionId());
+            ps.setTimestamp(4, lastActivity);
+        });
+
+        int updated = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) is reported by some drivers for successful batch statements
+                updated += count > 0 ? count : (count == Statement.SUCCESS_NO_INFO ? 1 : 0);
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public List<ExpiredSession> expireSessions(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(EXPIRE_SESSIONS_SQL,
+                ps -> {
+                    ps.setInt(1, limit);
+                    ps.setTimestamp(2, Timestamp.valueOf(now));
+                },
+                (rs, rowNum) -> new ExpiredSession(
+                        rs.getLong("SessionID"),
+                        rs.getInt("UserID"),
+                        rs.getString("Username"),
+                        rs.getString("IPAddress"),
+                        rs.getString("SessionToken")
+                ));
+    }
+}
@@ -1,5 +1,6 @@
 package com.hivclinic.service;
 
+import com.hivclinic.config.CustomUserDetailsService;
 import com.hivclinic.dto.request.AdminCreateUserRequest;
 import com.hivclinic.dto.response.MessageResponse;
 import com.hivclinic.model.*;
@@ -27,6 +28,7 @@ public class AdminService {
     @Autowired private SpecialtyRepository specialtyRepository;
     @Autowired private AppointmentRepository appointmentRepository;
     @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private CustomUserDetailsService userDetailsService;
 
     /**
      * Phương thức thống nhất để tạo bất kỳ loại tài khoản nào từ trang Admin.
@@ -106,6 +108,7 @@ public class AdminService {
             .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         user.setIsActive(!user.getIsActive());
         userRepository.save(user);
+        userDetailsService.evictCachedUser(user.getUsername());
         String status = user.getIsActive() ? "activated" : "deactivated";
         return MessageResponse.success("User account " + status + " successfully!");
     }
@@ -116,6 +119,7 @@ public class AdminService {
             .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsService.evictCachedUser(user.getUsername());
         return MessageResponse.success("Password reset successfully!");
     }
     
@@ -0,0 +1,312 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.Appointment;
+import com.hivclinic.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of upcoming appointment start times per doctor and per patient.
+ * Answers "is there another appointment within the conflict window" with a sorted-map range lookup
+ * instead of a query. Schedules are loaded lazily from AppointmentRepository, updated by
+ * AppointmentService after commit and reloaded after a TTL, so changes made by other paths or
+ * instances are picked up. A reported conflict is only a hint: callers confirm it with the database
+ * conflict check, which stays authoritative, and invalidate schedules it contradicts.
+ */
+@Component
+public class AppointmentIntervalIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentIntervalIndex.class);
+
+    // Same +/- window as the booking conflict check in AppointmentService
+    private static final int WINDOW_MINUTES = 30;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${app.appointments.interval-index.ttl-minutes:10}")
+    private long ttlMinutes = 10;
+
+    @Value("${app.appointments.interval-index.max-owners:10000}")
+    private int maxOwners = 10000;
+
+    private final Map<Integer, Schedule> doctorSchedules = new ConcurrentHashMap<>();
+    private final Map<Integer, Schedule> patientSchedules = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the doctor has another appointment within the conflict window of the given time
+     */
+    public boolean hasDoctorConflict(Integer doctorUserId, LocalDateTime dateTime, Integer excludeAppointmentId) {
+        return scheduleFor(doctorSchedules, doctorUserId, true)
+                .hasWithin(dateTime, WINDOW_MINUTES, excludeAppointmentId);
+    }
+
+    /**
+     * Whether the patient has another appointment within the conflict window of the given time
+     */
+    public boolean hasPatientConflict(Integer patientUserId, LocalDateTime dateTime, Integer excludeAppointmentId) {
+        return scheduleFor(patientSchedules, patientUserId, false)
+                .hasWithin(dateTime, WINDOW_MINUTES, excludeAppointmentId);
+    }
+
+    /**
+     * Record a created or updated appointment once the current transaction commits.
+     * Cancelled appointments are removed instead.
+     */
+    public void add(Appointment appointment) {
+        if ("Cancelled".equalsIgnoreCase(appointment.getStatus())) {
+            remove(appointment);
+            return;
+        }
+        Integer appointmentId = appointment.getAppointmentId();
+        Integer doctorUserId = appointment.getDoctorUser() != null ? appointment.getDoctorUser().getUserId() : null;
+        Integer patientUserId = appointment.getPatientUser() != null ? appointment.getPatientUser().getUserId() : null;
+        LocalDateTime dateTime = appointment.getAppointmentDateTime();
+        if (appointmentId == null || dateTime == null) {
+            return;
+        }
+
+        afterCommit(() -> {
+            // Unloaded owners pick the appointment up from the database when first queried
+            applyIfLoaded(doctorSchedules, doctorUserId, schedule -> schedule.put(appointmentId, dateTime));
+            applyIfLoaded(patientSchedules, patientUserId, schedule -> schedule.put(appointmentId, dateTime));
+        });
+    }
+
+    /**
+     * Drop a cancelled or deleted appointment once the current transaction commits
+     */
+    public void remove(Appointment appointment) {
+        Integer appointmentId = appointment.getAppointmentId();
+        Integer doctorUserId = appointment.getDoctorUser() != null ? appointment.getDoctorUser().getUserId() : null;
+        Integer patientUserId = appointment.getPatientUser() != null ? appointment.getPatientUser().getUserId() : null;
+        if (appointmentId == null) {
+            return;
+        }
+
+        afterCommit(() -> {
+            applyIfLoaded(doctorSchedules, doctorUserId, schedule -> schedule.remove(appointmentId));
+            applyIfLoaded(patientSchedules, patientUserId, schedule -> schedule.remove(appointmentId));
+        });
+    }
+
+    /**
+     * Drop the loaded schedules of a doctor and a patient, so the next lookup reloads them from the database.
+     * Owners that are not loaded are left alone; nothing is read here.
+     */
+    public void invalidate(Integer doctorUserId, Integer patientUserId) {
+        if (doctorUserId != null) {
+            doctorSchedules.remove(doctorUserId);
+        }
+        if (patientUserId != null) {
+            patientSchedules.remove(patientUserId);
+        }
+    }
+
+    public void invalidateAll() {
+        doctorSchedules.clear();
+        patientSchedules.clear();
+    }
+
+    public int getLoadedOwnerCount() {
+        return doctorSchedules.size() + patientSchedules.size();
+    }
+
+    /**
+     * Compare every loaded schedule with the database without changing the index
+     */
+    public Map<String, Object> verify() {
+        return verify(false);
+    }
+
+    /**
+     * Compare every loaded schedule with the database, replacing the ones that differ
+     */
+    public Map<String, Object> repair() {
+        return verify(true);
+    }
+
+    private Map<String, Object> verify(boolean repair) {
+        List<Integer> inconsistentDoctors = verifySchedules(doctorSchedules, true, repair);
+        List<Integer> inconsistentPatients = verifySchedules(patientSchedules, false, repair);
+
+        if (!inconsistentDoctors.isEmpty() || !inconsistentPatients.isEmpty()) {
+            logger.warn("Appointment index out of sync for doctors {} and patients {}{}",
+                    inconsistentDoctors, inconsistentPatients, repair ? ", reloaded" : "");
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("doctorsChecked", doctorSchedules.size());
+        report.put("patientsChecked", patientSchedules.size());
+        report.put("inconsistentDoctors", inconsistentDoctors);
+        report.put("inconsistentPatients", inconsistentPatients);
+        report.put("consistent", inconsistentDoctors.isEmpty() && inconsistentPatients.isEmpty());
+        report.put("repaired", repair);
+        return report;
+    }
+
+    /**
+     * Drop past appointments and expired schedules - runs every 15 minutes
+     */
+    @Scheduled(fixedRate = 900000)
+    public void pruneExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(WINDOW_MINUTES);
+        long now = System.currentTimeMillis();
+        doctorSchedules.values().removeIf(schedule -> schedule.isExpired(now, ttlMinutes));
+        patientSchedules.values().removeIf(schedule -> schedule.isExpired(now, ttlMinutes));
+        doctorSchedules.values().forEach(schedule -> schedule.pruneBefore(cutoff));
+        patientSchedules.values().forEach(schedule -> schedule.pruneBefore(cutoff));
+    }
+
+    private Schedule scheduleFor(Map<Integer, Schedule> schedules, Integer ownerId, boolean doctor) {
+        Schedule schedule = schedules.get(ownerId);
+        if (schedule != null && !schedule.isExpired(System.currentTimeMillis(), ttlMinutes)) {
+            return schedule;
+        }
+
+        if (schedules.size() >= maxOwners) {
+            pruneExpired();
+            if (schedules.size() >= maxOwners) {
+                schedules.clear();
+            }
+        }
+
+        Schedule loaded = load(ownerId, doctor);
+        schedules.put(ownerId, loaded);
+        return loaded;
+    }
+
+    private Schedule load(Integer ownerId, boolean doctor) {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(WINDOW_MINUTES);
+        List<Object[]> rows = doctor
+                ? appointmentRepository.findDoctorScheduleFrom(ownerId, from)
+                : appointmentRepository.findPatientScheduleFrom(ownerId, from);
+
+        Schedule schedule = new Schedule(System.currentTimeMillis());
+        for (Object[] row : rows) {
+            schedule.put((Integer) row[0], (LocalDateTime) row[1]);
+        }
+        return schedule;
+    }
+
+    private List<Integer> verifySchedules(Map<Integer, Schedule> schedules, boolean doctor, boolean repair) {
+        List<Integer> inconsistent = new ArrayList<>();
+        for (Map.Entry<Integer, Schedule> entry : schedules.entrySet()) {
+            Schedule fresh = load(entry.getKey(), doctor);
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(WINDOW_MINUTES);
+            if (!entry.getValue().snapshotFrom(cutoff).equals(fresh.snapshotFrom(cutoff))) {
+                inconsistent.add(entry.getKey());
+                if (repair) {
+                    schedules.put(entry.getKey(), fresh);
+                }
+            }
+        }
+        return inconsistent;
+    }
+
+    private void applyIfLoaded(Map<Integer, Schedule> schedules, Integer ownerId,
+                               Consumer<Schedule> action) {
+        if (ownerId == null) {
+            return;
+        }
+        Schedule schedule = schedules.get(ownerId);
+        if (schedule != null) {
+            action.accept(schedule);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Appointment start times of one doctor or patient, sorted for range lookups
+     */
+    static class Schedule {
+        private final TreeMap<LocalDateTime, Set<Integer>> idsByStart = new TreeMap<>();
+        private final Map<Integer, LocalDateTime> startById = new HashMap<>();
+        private final long loadedAtMillis;
+
+        Schedule(long loadedAtMillis) {
+            this.loadedAtMillis = loadedAtMillis;
+        }
+
+        synchronized void put(Integer appointmentId, LocalDateTime start) {
+            remove(appointmentId);
+            idsByStart.computeIfAbsent(start, k -> new HashSet<>()).add(appointmentId);
+            startById.put(appointmentId, start);
+        }
+
+        synchronized void remove(Integer appointmentId) {
+            LocalDateTime start = startById.remove(appointmentId);
+            if (start != null) {
+                Set<Integer> ids = idsByStart.get(start);
+                ids.remove(appointmentId);
+                if (ids.isEmpty()) {
+                    idsByStart.remove(start);
+                }
+            }
+        }
+
+        synchronized boolean hasWithin(LocalDateTime dateTime, int minutes, Integer excludeAppointmentId) {
+            NavigableMap<LocalDateTime, Set<Integer>> window =
+                    idsByStart.subMap(dateTime.minusMinutes(minutes), true, dateTime.plusMinutes(minutes), true);
+            for (Set<Integer> ids : window.values()) {
+                for (Integer id : ids) {
+                    if (!id.equals(excludeAppointmentId)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        synchronized void pruneBefore(LocalDateTime cutoff) {
+            NavigableMap<LocalDateTime, Set<Integer>> past = idsByStart.headMap(cutoff, false);
+            past.values().forEach(ids -> ids.forEach(startById::remove));
+            past.clear();
+        }
+
+        synchronized Map<Integer, LocalDateTime> snapshotFrom(LocalDateTime cutoff) {
+            Map<Integer, LocalDateTime> snapshot = new HashMap<>();
+            startById.forEach((id, start) -> {
+                if (!start.isBefore(cutoff)) {
+                    snapshot.put(id, start);
+                }
+            });
+            return snapshot;
+        }
+
+        boolean isExpired(long nowMillis, long ttlMinutes) {
+            return nowMillis - loadedAtMillis >= ttlMinutes * 60_000L;
+        }
+    }
+}
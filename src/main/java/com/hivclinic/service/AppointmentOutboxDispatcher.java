@@ -0,0 +1,260 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.Appointment;
+import com.hivclinic.model.AppointmentOutboxEvent;
+import com.hivclinic.model.AppointmentStatusHistory;
+import com.hivclinic.model.Notification;
+import com.hivclinic.model.User;
+import com.hivclinic.repository.AppointmentOutboxRepository;
+import com.hivclinic.repository.AppointmentOutboxRepositoryCustom.ClaimedOutboxEvent;
+import com.hivclinic.repository.AppointmentRepository;
+import com.hivclinic.repository.AppointmentStatusHistoryRepository;
+import com.hivclinic.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Background dispatcher for the appointment outbox.
+ * Bookings only write an AppointmentOutboxEvent; this dispatcher claims due events in batches and
+ * writes their status history and reminder notifications with one JDBC batch each, in the same
+ * transaction that marks the events processed. Failed events are retried with a growing delay; once
+ * retries are exhausted they are marked dead (FailedAt) and wait for an operator to replay them.
+ */
+@Component
+public class AppointmentOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentOutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private AppointmentOutboxRepository appointmentOutboxRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationSchedulingService notificationSchedulingService;
+
+    @Autowired
+    private NotificationTimingWheel notificationTimingWheel;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.appointments.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${app.appointments.outbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${app.appointments.outbox.lease-seconds:60}")
+    private long leaseSeconds = 60;
+
+    @Value("${app.appointments.outbox.retry-delay-seconds:30}")
+    private long retryDelaySeconds = 30;
+
+    /**
+     * Dispatch due outbox events - runs every 2 seconds by default
+     */
+    @Scheduled(fixedDelayString = "${app.appointments.outbox.poll-interval-ms:2000}")
+    public void scheduledDispatch() {
+        try {
+            dispatch();
+        } catch (Exception e) {
+            logger.error("Error dispatching appointment outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim and process due events until none are left, returning the number processed
+     */
+    public int dispatch() {
+        markExhaustedDead();
+
+        int processed = 0;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<ClaimedOutboxEvent> batch = appointmentOutboxRepository.claimDueEvents(
+                    now, now.plusSeconds(leaseSeconds), maxAttempts, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            processed += process(batch);
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (processed > 0) {
+            logger.debug("Dispatched {} appointment outbox events", processed);
+        }
+        return processed;
+    }
+
+    /**
+     * Apply a claimed batch in one transaction, falling back to one transaction per event
+     * so a single bad event does not hold back the rest
+     */
+    private int process(List<ClaimedOutboxEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+            return batch.size();
+        } catch (Exception e) {
+            logger.warn("Outbox batch of {} events failed, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+
+        int processed = 0;
+        for (ClaimedOutboxEvent event : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(List.of(event)));
+                processed++;
+            } catch (Exception e) {
+                markFailed(event, e);
+            }
+        }
+        return processed;
+    }
+
+    private void apply(List<ClaimedOutboxEvent> events) {
+        Set<Integer> appointmentIds = new HashSet<>();
+        List<Long> outboxIds = new ArrayList<>(events.size());
+        for (ClaimedOutboxEvent event : events) {
+            appointmentIds.add(event.appointmentId());
+            outboxIds.add(event.outboxId());
+        }
+
+        Map<Integer, Appointment> appointments = new HashMap<>();
+        for (Appointment appointment : appointmentRepository.findAllWithUsersByIdIn(appointmentIds)) {
+            appointments.put(appointment.getAppointmentId(), appointment);
+        }
+
+        List<AppointmentStatusHistory> history = new ArrayList<>();
+        List<Notification> reminders = new ArrayList<>();
+        for (ClaimedOutboxEvent event : events) {
+            Appointment appointment = appointments.get(event.appointmentId());
+            if (appointment == null) {
+                logger.warn("Skipping outbox event {}: appointment {} no longer exists",
+                        event.outboxId(), event.appointmentId());
+                continue;
+            }
+
+            if (AppointmentOutboxEvent.APPOINTMENT_BOOKED.equals(event.eventType())) {
+                history.add(statusHistory(appointment, event));
+                // A booking cancelled before dispatch gets no reminders
+                if (!"Cancelled".equalsIgnoreCase(appointment.getStatus())) {
+                    reminders.addAll(notificationSchedulingService.buildAppointmentReminders(appointment));
+                }
+            } else {
+                logger.warn("Skipping outbox event {} with unknown type {}", event.outboxId(), event.eventType());
+            }
+        }
+
+        appointmentStatusHistoryRepository.batchInsert(history);
+        notificationRepository.batchInsert(reminders);
+        notificationTimingWheel.notifyScheduled(reminders);
+        appointmentOutboxRepository.markProcessed(outboxIds, LocalDateTime.now());
+    }
+
+    private AppointmentStatusHistory statusHistory(Appointment appointment, ClaimedOutboxEvent event) {
+        AppointmentStatusHistory entry = new AppointmentStatusHistory();
+        entry.setAppointment(appointment);
+        entry.setOldStatus(null);
+        entry.setNewStatus("Scheduled");
+        entry.setChangeReason(event.changeReason());
+        // Keep the time of the booking rather than the time of dispatch
+        entry.setChangedAt(event.occurredAt());
+        if (event.changedByUserId() != null) {
+            User changedBy = new User();
+            changedBy.setUserId(event.changedByUserId());
+            entry.setChangedByUser(changedBy);
+        }
+        return entry;
+    }
+
+    private void markFailed(ClaimedOutboxEvent event, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        boolean exhausted = event.attempts() >= maxAttempts;
+        if (exhausted) {
+            logger.error("Outbox event {} for appointment {} failed {} times, marking it dead: {}",
+                    event.outboxId(), event.appointmentId(), event.attempts(), error, e);
+        } else {
+            logger.warn("Outbox event {} for appointment {} failed (attempt {}): {}",
+                    event.outboxId(), event.appointmentId(), event.attempts(), error);
+        }
+
+        String lastError = error;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextAttemptAt = now.plusSeconds(retryDelaySeconds * event.attempts());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (exhausted) {
+                    appointmentOutboxRepository.markDead(event.outboxId(), lastError, now);
+                } else {
+                    appointmentOutboxRepository.markFailed(event.outboxId(), lastError, nextAttemptAt);
+                }
+            });
+        } catch (Exception markError) {
+            // The claim lease still expires, so the event is retried either way
+            logger.error("Could not record failure of outbox event {}: {}", event.outboxId(), markError.getMessage());
+        }
+    }
+
+    /**
+     * Number of events waiting to be dispatched and of dead events waiting for a replay
+     */
+    public Map<String, Object> getStatus() {
+        long unprocessed = appointmentOutboxRepository.countByProcessedAtIsNull();
+        long dead = appointmentOutboxRepository.countByProcessedAtIsNullAndFailedAtIsNotNull();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("pending", unprocessed - dead);
+        status.put("dead", dead);
+        return status;
+    }
+
+    /**
+     * Make every dead event due again with a fresh set of attempts, returning the number replayed
+     */
+    public int replayDeadEvents() {
+        Integer replayed = transactionTemplate.execute(status -> appointmentOutboxRepository.replayDead(LocalDateTime.now()));
+        int count = replayed != null ? replayed : 0;
+        logger.info("Replaying {} dead appointment outbox events", count);
+        return count;
+    }
+
+    private void markExhaustedDead() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int dead = appointmentOutboxRepository.markExhaustedDead(maxAttempts, LocalDateTime.now());
+                if (dead > 0) {
+                    logger.error("Marked {} appointment outbox events dead after their last attempt was lost", dead);
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Could not mark exhausted outbox events dead: {}", e.getMessage());
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package com.hivclinic.service;
 
+import com.hivclinic.config.FlexibleDateTimeParser;
 import com.hivclinic.dto.request.AppointmentBookingRequest;
+import com.hivclinic.dto.request.BulkAppointmentStatusRequest;
+import com.hivclinic.dto.response.AppointmentListResponse;
+import com.hivclinic.dto.response.AppointmentStatusUpdateResult;
+import com.hivclinic.dto.response.AppointmentSummaryResponse;
 import com.hivclinic.dto.response.MessageResponse;
+import com.hivclinic.exception.SlotAlreadyBookedException;
 import com.hivclinic.model.*;
 import com.hivclinic.repository.*;
+import com.hivclinic.repository.AppointmentRepositoryCustom.BookingConflictCheck;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for managing appointments with enhanced date/time handling
@@ -26,16 +38,7 @@ public class AppointmentService {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentService.class);
     
-    // Comprehensive date/time formatters for consistent parsing
-    private static final DateTimeFormatter[] SUPPORTED_FORMATTERS = {
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
-        DateTimeFormatter.ISO_LOCAL_DATE_TIME,
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS")
-    };
+    private static final int MAX_PAGE_SIZE = 200;
 
     @Autowired
     private AppointmentRepository appointmentRepository;
@@ -46,26 +49,30 @@ public class AppointmentService {
     @Autowired
     private DoctorAvailabilitySlotRepository availabilitySlotRepository;
 
-    @Autowired
-    private DoctorProfileRepository doctorProfileRepository;
-
     @Autowired
     private PatientRecordRepository patientRecordRepository;
 
     @Autowired
     private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
 
+    @Autowired
+    private AppointmentOutboxRepository appointmentOutboxRepository;
+
     @Autowired
     private PatientPrivacyService patientPrivacyService;
-    
+
     @Autowired
-    private NotificationSchedulingService notificationSchedulingService;
+    private AppointmentIntervalIndex appointmentIntervalIndex;
 
     /**
      * Sanitize patient data based on privacy settings
      */
     private User sanitizePatientData(User patient) {
-        if (patientPrivacyService.getPrivacySettings(patient.getUserId())) {
+        return sanitizePatientData(patient, patientPrivacyService.getPrivacySettings(patient.getUserId()));
+    }
+
+    private User sanitizePatientData(User patient, boolean isPrivate) {
+        if (isPrivate) {
             // Create a copy with minimal info for private mode
             User sanitized = new User();
             sanitized.setUserId(patient.getUserId());
@@ -80,16 +87,28 @@ public class AppointmentService {
     }
 
     /**
-     * Apply privacy filter to a list of appointments
+     * Apply privacy filter to a list of appointments, looking up all patients' settings at once
      */
-    private List<Appointment> applyPrivacyFilter(List<Appointment> appointments) {
-        if (appointments == null) return null;
+    private List<AppointmentListResponse> applyPrivacyFilter(List<AppointmentListResponse> appointments) {
+        Set<Integer> patientUserIds = new HashSet<>();
+        for (AppointmentListResponse appointment : appointments) {
+            patientUserIds.add(appointment.getPatientUser().getUserId());
+        }
+        if (patientUserIds.isEmpty()) {
+            return appointments;
+        }
         
-        appointments.forEach(appointment -> {
-            if (appointment.getPatientUser() != null) {
-                appointment.setPatientUser(sanitizePatientData(appointment.getPatientUser()));
+        Map<Integer, Boolean> privacySettings = patientPrivacyService.getPrivacySettings(patientUserIds);
+        for (AppointmentListResponse appointment : appointments) {
+            AppointmentListResponse.UserSummary patient = appointment.getPatientUser();
+            if (privacySettings.getOrDefault(patient.getUserId(), false)) {
+                // Same minimal info as sanitizePatientData
+                patient.setUsername("Anonymous");
+                patient.setEmail("private@example.com");
+                patient.setFirstName(null);
+                patient.setLastName(null);
             }
-        });
+        }
         
         return appointments;
     }
@@ -102,39 +121,16 @@ public class AppointmentService {
             throw new IllegalArgumentException("Date/time string cannot be null or empty");
         }
 
-        // Clean the input string
-        String cleanDateTimeStr = dateTimeStr.trim();
-        
-        // Remove timezone indicators for local parsing
-        if (cleanDateTimeStr.endsWith("Z")) {
-            cleanDateTimeStr = cleanDateTimeStr.substring(0, cleanDateTimeStr.length() - 1);
-        }
-        
-        // Remove timezone offset patterns
-        cleanDateTimeStr = cleanDateTimeStr.replaceAll("[+-]\\d{2}:\\d{2}$", "");
-        cleanDateTimeStr = cleanDateTimeStr.replaceAll("[+-]\\d{4}$", "");
-        
-        // Try each formatter
-        for (DateTimeFormatter formatter : SUPPORTED_FORMATTERS) {
-            try {
-                LocalDateTime result = LocalDateTime.parse(cleanDateTimeStr, formatter);
-                logger.debug("Successfully parsed appointment date/time '{}' to {} using formatter {}", 
-                    dateTimeStr, result, formatter.toString());
-                return result;
-            } catch (DateTimeParseException e) {
-                logger.trace("Failed to parse '{}' with formatter {}: {}", 
-                    cleanDateTimeStr, formatter.toString(), e.getMessage());
-            }
+        LocalDateTime result = FlexibleDateTimeParser.parse(dateTimeStr);
+        if (result == null) {
+            logger.error("Unable to parse appointment date/time: '{}'. Supported formats: yyyy-MM-ddTHH:mm:ss, yyyy-MM-dd HH:mm:ss, ISO formats", 
+                dateTimeStr);
+            throw new IllegalArgumentException(
+                "Unable to parse date/time: " + dateTimeStr + 
+                ". Expected format: yyyy-MM-ddTHH:mm:ss, yyyy-MM-dd HH:mm:ss, or ISO date-time format"
+            );
         }
-        
-        // If all formatters fail
-        logger.error("Unable to parse appointment date/time: '{}'. Supported formats: yyyy-MM-ddTHH:mm:ss, yyyy-MM-dd HH:mm:ss, ISO formats", 
-            dateTimeStr);
-        
-        throw new IllegalArgumentException(
-            "Unable to parse date/time: " + dateTimeStr + 
-            ". Expected format: yyyy-MM-ddTHH:mm:ss, yyyy-MM-dd HH:mm:ss, or ISO date-time format"
-        );
+        return result;
     }
 
     /**
@@ -152,11 +148,8 @@ public class AppointmentService {
             }
 
             // Parse appointment date time
-            LocalDateTime appointmentDateTime;
-            try {
-                appointmentDateTime = LocalDateTime.parse(request.getAppointmentDateTime(), 
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
-            } catch (Exception e) {
+            LocalDateTime appointmentDateTime = FlexibleDateTimeParser.parse(request.getAppointmentDateTime());
+            if (appointmentDateTime == null) {
                 logger.error("Failed to parse appointment date time: {}", request.getAppointmentDateTime());
                 return MessageResponse.error("Invalid appointment date time format");
             }
@@ -168,84 +161,75 @@ public class AppointmentService {
                 return MessageResponse.error("Appointment must be at least 5 minutes in the future");
             }
 
-            // Validate patient exists and has correct role
-            Optional<User> patientOpt = userRepository.findById(patientUserId);
-            if (patientOpt.isEmpty()) {
+            Integer doctorUserId = request.getDoctorUserId();
+            Integer slotId = request.getAvailabilitySlotId();
+
+            // Validate both users, conflicting appointments and the slot in a single query
+            BookingConflictCheck check = appointmentRepository.checkBookingConflicts(
+                patientUserId,
+                doctorUserId,
+                slotId,
+                appointmentDateTime.minusMinutes(30),
+                appointmentDateTime.plusMinutes(30)
+            );
+
+            if (check.patientRole() == null) {
                 logger.error("Patient not found with ID: {}", patientUserId);
                 return MessageResponse.error("Patient not found");
             }
-            User patient = patientOpt.get();
 
-            if (!"Patient".equalsIgnoreCase(patient.getRole().getRoleName())) {
+            if (!"Patient".equalsIgnoreCase(check.patientRole())) {
                 logger.error("User {} is not a patient", patientUserId);
                 return MessageResponse.error("User is not a patient");
             }
 
-            // Validate doctor exists and has correct role
-            Optional<User> doctorOpt = userRepository.findById(request.getDoctorUserId());
-            if (doctorOpt.isEmpty()) {
-                logger.error("Doctor not found with ID: {}", request.getDoctorUserId());
+            if (check.doctorRole() == null) {
+                logger.error("Doctor not found with ID: {}", doctorUserId);
                 return MessageResponse.error("Doctor not found");
             }
-            User doctor = doctorOpt.get();
 
-            if (!"Doctor".equalsIgnoreCase(doctor.getRole().getRoleName())) {
-                logger.error("User {} is not a doctor", request.getDoctorUserId());
+            if (!"Doctor".equalsIgnoreCase(check.doctorRole())) {
+                logger.error("User {} is not a doctor", doctorUserId);
                 return MessageResponse.error("Selected user is not a doctor");
             }
 
-            // Check for conflicting appointments for patient
-            List<Appointment> patientConflicts = appointmentRepository.findByPatientUserAndAppointmentDateTimeBetween(
-                patient, 
-                appointmentDateTime.minusMinutes(30), 
-                appointmentDateTime.plusMinutes(30)
-            );
-            
-            if (!patientConflicts.isEmpty()) {
+            if (check.patientConflict()) {
                 logger.warn("Patient {} already has appointment around time {}", patientUserId, appointmentDateTime);
                 return MessageResponse.error("You already have an appointment around this time");
             }
 
-            // Check for conflicting appointments for doctor
-            List<Appointment> doctorConflicts = appointmentRepository.findByDoctorUserAndAppointmentDateTimeBetween(
-                doctor, 
-                appointmentDateTime.minusMinutes(30), 
-                appointmentDateTime.plusMinutes(30)
-            );
-            
-            if (!doctorConflicts.isEmpty()) {
-                logger.warn("Doctor {} is not available at time {}", request.getDoctorUserId(), appointmentDateTime);
+            if (check.doctorConflict()) {
+                logger.warn("Doctor {} is not available at time {}", doctorUserId, appointmentDateTime);
                 return MessageResponse.error("Doctor is not available at this time");
             }
 
-            // Handle availability slot validation and booking
-            DoctorAvailabilitySlot availabilitySlot = null;
-            Optional<DoctorAvailabilitySlot> slotOpt = availabilitySlotRepository
-                    .findById(request.getAvailabilitySlotId());
-            
-            if (slotOpt.isEmpty()) {
-                logger.error("Availability slot not found with ID: {}", request.getAvailabilitySlotId());
+            if (!check.slotExists()) {
+                logger.error("Availability slot not found with ID: {}", slotId);
                 return MessageResponse.error("Availability slot not found");
             }
 
-            availabilitySlot = slotOpt.get();
-            
             // Validate slot belongs to the doctor
-            if (!availabilitySlot.getDoctorUser().getUserId().equals(doctor.getUserId())) {
-                logger.error("Availability slot {} does not belong to doctor {}", 
-                    request.getAvailabilitySlotId(), request.getDoctorUserId());
+            if (!check.slotDoctorUserId().equals(doctorUserId)) {
+                logger.error("Availability slot {} does not belong to doctor {}", slotId, doctorUserId);
                 return MessageResponse.error("Availability slot does not belong to the selected doctor");
             }
-            
-            // Check if slot is already booked
-            if (availabilitySlot.getIsBooked()) {
-                logger.warn("Availability slot {} is already booked", request.getAvailabilitySlotId());
-                return MessageResponse.error("This time slot is already booked");
+
+            if (Boolean.TRUE.equals(check.slotBooked())) {
+                logger.warn("Availability slot {} is already booked", slotId);
+                throw new SlotAlreadyBookedException("This time slot is already booked");
+            }
+
+            // Reserve the slot with a single conditional update, so only one concurrent booking can win it
+            int reserved = availabilitySlotRepository.reserveSlot(slotId, doctorUserId, LocalDateTime.now());
+            if (reserved == 0) {
+                logger.warn("Availability slot {} was booked concurrently", slotId);
+                throw new SlotAlreadyBookedException("This time slot is already booked");
             }
-            
-            // Mark slot as booked
-            availabilitySlot.setIsBooked(true);
-            availabilitySlotRepository.save(availabilitySlot);
+
+            // Both users were validated above, so references are enough to link the appointment
+            User patient = userRepository.getReferenceById(patientUserId);
+            User doctor = userRepository.getReferenceById(doctorUserId);
+            DoctorAvailabilitySlot availabilitySlot = availabilitySlotRepository.getReferenceById(slotId);
 
             // Create appointment
             Appointment appointment = new Appointment();
@@ -258,152 +242,141 @@ public class AppointmentService {
 
             // Save appointment
             Appointment savedAppointment = appointmentRepository.save(appointment);
+            appointmentIntervalIndex.add(savedAppointment);
 
-            // Create status history entry
-            createStatusHistory(savedAppointment, null, "Scheduled", "Appointment booked", patient);
-
-            // Schedule appointment reminders
-            try {
-                notificationSchedulingService.scheduleAppointmentReminders(savedAppointment);
-                logger.info("Scheduled appointment reminders for appointment ID: {}", savedAppointment.getAppointmentId());
-            } catch (Exception e) {
-                logger.error("Failed to schedule appointment reminders for appointment ID: {}: {}",
-                           savedAppointment.getAppointmentId(), e.getMessage(), e);
-                // Don't fail the booking if reminder scheduling fails
-            }
+            // Status history and reminders are written after commit by AppointmentOutboxDispatcher
+            AppointmentOutboxEvent outboxEvent = new AppointmentOutboxEvent();
+            outboxEvent.setAppointmentId(savedAppointment.getAppointmentId());
+            outboxEvent.setEventType(AppointmentOutboxEvent.APPOINTMENT_BOOKED);
+            outboxEvent.setChangedByUserId(patientUserId);
+            outboxEvent.setChangeReason("Appointment booked");
+            appointmentOutboxRepository.save(outboxEvent);
 
             logger.info("Appointment booked successfully for patient: {} with doctor: {}",
-                        patient.getUsername(), doctor.getUsername());
+                        patientUserId, doctorUserId);
             return MessageResponse.success("Appointment booked successfully!");
 
+        } catch (SlotAlreadyBookedException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error booking appointment:", e);
+            // Release the slot reservation along with anything else written so far
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return MessageResponse.error("Booking failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Check the index first and confirm a reported conflict against the database, reloading schedules it contradicts
+     */
+    private boolean hasConfirmedConflict(Integer doctorUserId, Integer patientUserId,
+                                         LocalDateTime dateTime, Integer excludeAppointmentId) {
+        if (!appointmentIntervalIndex.hasDoctorConflict(doctorUserId, dateTime, excludeAppointmentId)
+                && !appointmentIntervalIndex.hasPatientConflict(patientUserId, dateTime, excludeAppointmentId)) {
+            return false;
+        }
+        boolean confirmed = appointmentRepository.existsConflictingAppointment(
+                doctorUserId, patientUserId, excludeAppointmentId, dateTime.minusMinutes(30), dateTime.plusMinutes(30));
+        if (!confirmed) {
+            logger.info("Appointment index reported a conflict the database did not confirm, reloading schedules");
+            appointmentIntervalIndex.invalidate(doctorUserId, patientUserId);
+        }
+        return confirmed;
+    }
+
     private boolean isValidBookingRequest(AppointmentBookingRequest request) {
         return request != null 
             && request.getDoctorUserId() != null
             && request.getAvailabilitySlotId() != null
             && request.getAppointmentDateTime() != null
-            && request.getAppointmentDateTime().matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}");
+            && FlexibleDateTimeParser.isIsoSecondsShape(request.getAppointmentDateTime());
     }
 
     /**
      * Get all appointments for a patient
      */
     @Transactional(readOnly = true)
-    public List<Appointment> getPatientAppointments(Integer patientUserId) {
-        Optional<User> patientOpt = userRepository.findById(patientUserId);
-        if (patientOpt.isEmpty()) {
-            throw new RuntimeException("Patient not found");
-        }
-        
-        List<Appointment> appointments = appointmentRepository.findByPatientUser(patientOpt.get());
-        
-        // Force initialization of lazy-loaded entities
-        appointments.forEach(appointment -> {
-            if (appointment.getPatientUser() != null) {
-                appointment.getPatientUser().getUsername();
-                if (appointment.getPatientUser().getRole() != null) {
-                    appointment.getPatientUser().getRole().getRoleName();
-                }
-            }
-            if (appointment.getDoctorUser() != null) {
-                appointment.getDoctorUser().getUsername();
-                if (appointment.getDoctorUser().getRole() != null) {
-                    appointment.getDoctorUser().getRole().getRoleName();
-                }
-                // Attach doctor profile info for display
-                doctorProfileRepository.findByUser(appointment.getDoctorUser()).ifPresent(profile -> {
-                    appointment.getDoctorUser().setFirstName(profile.getFirstName());
-                    appointment.getDoctorUser().setLastName(profile.getLastName());
-                    if (profile.getSpecialty() != null) {
-                        appointment.getDoctorUser().setSpecialty(profile.getSpecialty().getSpecialtyName());
-                    }
-                });
-            }
-            if (appointment.getAvailabilitySlot() != null) {
-                appointment.getAvailabilitySlot().getSlotDate();
-            }
-        });
-        
-        return applyPrivacyFilter(appointments);
+    public List<AppointmentListResponse> getPatientAppointments(Integer patientUserId) {
+        return applyPrivacyFilter(appointmentRepository.findPatientAppointmentList(patientUserId, null));
     }
 
     /**
      * Get upcoming appointments for a patient
      */
     @Transactional(readOnly = true)
-    public List<Appointment> getPatientUpcomingAppointments(Integer patientUserId) {
-        Optional<User> patientOpt = userRepository.findById(patientUserId);
-        if (patientOpt.isEmpty()) {
-            throw new RuntimeException("Patient not found");
-        }
-        
-        List<Appointment> appointments = appointmentRepository.findByPatientUserAndAppointmentDateTimeAfter(
-                patientOpt.get(), LocalDateTime.now());
-        
-        // Force initialization of lazy-loaded entities
-        appointments.forEach(appointment -> {
-            if (appointment.getPatientUser() != null) {
-                appointment.getPatientUser().getUsername();
-                if (appointment.getPatientUser().getRole() != null) {
-                    appointment.getPatientUser().getRole().getRoleName();
-                }
-            }
-            if (appointment.getDoctorUser() != null) {
-                appointment.getDoctorUser().getUsername();
-                if (appointment.getDoctorUser().getRole() != null) {
-                    appointment.getDoctorUser().getRole().getRoleName();
-                }
-                // Attach doctor profile info for display
-                doctorProfileRepository.findByUser(appointment.getDoctorUser()).ifPresent(profile -> {
-                    appointment.getDoctorUser().setFirstName(profile.getFirstName());
-                    appointment.getDoctorUser().setLastName(profile.getLastName());
-                    if (profile.getSpecialty() != null) {
-                        appointment.getDoctorUser().setSpecialty(profile.getSpecialty().getSpecialtyName());
-                    }
-                });
-            }
-        });
-        
-        return applyPrivacyFilter(appointments);
+    public List<AppointmentListResponse> getPatientUpcomingAppointments(Integer patientUserId) {
+        return applyPrivacyFilter(appointmentRepository.findPatientAppointmentList(patientUserId, LocalDateTime.now()));
     }
 
     /**
      * Get appointments for a doctor
      */
     @Transactional(readOnly = true)
-    public List<Appointment> getDoctorAppointments(Integer doctorUserId) {
-        Optional<User> doctorOpt = userRepository.findById(doctorUserId);
-        if (doctorOpt.isEmpty()) {
-            throw new RuntimeException("Doctor not found");
-        }
-        
-        List<Appointment> appointments = appointmentRepository.findByDoctorUser(doctorOpt.get());
-        
-        // Force initialization of lazy-loaded entities
-        appointments.forEach(appointment -> {
-            if (appointment.getPatientUser() != null) {
-                appointment.getPatientUser().getUsername();
-                if (appointment.getPatientUser().getRole() != null) {
-                    appointment.getPatientUser().getRole().getRoleName();
-                }
-            }
-            if (appointment.getDoctorUser() != null) {
-                appointment.getDoctorUser().getUsername();
-                if (appointment.getDoctorUser().getRole() != null) {
-                    appointment.getDoctorUser().getRole().getRoleName();
-                }
+    public List<AppointmentListResponse> getDoctorAppointments(Integer doctorUserId) {
+        return applyPrivacyFilter(appointmentRepository.findDoctorAppointmentList(doctorUserId));
+    }
+
+    /**
+     * Get one page of a doctor's appointments, newest first, optionally limited to [from, to) and a status.
+     * Uses keyset pagination over a flat projection; pass the returned nextCursor to get the following page.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDoctorAppointmentPage(Integer doctorUserId, LocalDateTime from, LocalDateTime to,
+                                                        String status, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime beforeDateTime = null;
+        Integer beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                beforeDateTime = LocalDateTime.parse(parts[0]);
+                beforeId = Integer.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
             }
-            if (appointment.getAvailabilitySlot() != null) {
-                appointment.getAvailabilitySlot().getSlotDate();
+        }
+
+        // Fetch one extra row to tell whether another page follows
+        List<AppointmentSummaryResponse> rows = appointmentRepository.findDoctorAppointmentSummaries(
+                doctorUserId, from, to, status, beforeDateTime, beforeId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<AppointmentSummaryResponse> content = hasMore ? rows.subList(0, pageSize) : rows;
+        applySummaryPrivacyFilter(content);
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", content);
+        page.put("limit", pageSize);
+        page.put("hasMore", hasMore);
+        if (hasMore) {
+            AppointmentSummaryResponse last = content.get(content.size() - 1);
+            page.put("nextCursor", encodeCursor(last.getAppointmentDateTime(), last.getAppointmentId()));
+        }
+        return page;
+    }
+
+    /**
+     * Hide the usernames of private patients in appointment summaries
+     */
+    private void applySummaryPrivacyFilter(List<AppointmentSummaryResponse> summaries) {
+        Set<Integer> patientUserIds = new HashSet<>();
+        for (AppointmentSummaryResponse summary : summaries) {
+            patientUserIds.add(summary.getPatientUserId());
+        }
+        if (patientUserIds.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Boolean> privacySettings = patientPrivacyService.getPrivacySettings(patientUserIds);
+        for (AppointmentSummaryResponse summary : summaries) {
+            if (privacySettings.getOrDefault(summary.getPatientUserId(), false)) {
+                summary.setPatientUsername("Anonymous");
             }
-        });
-        
-        return applyPrivacyFilter(appointments);
+        }
+    }
+
+    private String encodeCursor(LocalDateTime dateTime, Integer appointmentId) {
+        String raw = dateTime + "|" + appointmentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -454,6 +427,7 @@ public class AppointmentService {
             }
 
             appointmentRepository.save(appointment);
+            appointmentIntervalIndex.remove(appointment);
 
             // Create status history entry
             createStatusHistory(appointment, oldStatus, "Cancelled", cancellationReason, cancelledBy);
@@ -498,36 +472,49 @@ public class AppointmentService {
             }
 
             appointmentRepository.save(appointment);
+            appointmentIntervalIndex.add(appointment);
 
             // Create status history
             User doctor = userRepository.findById(doctorUserId).orElse(null);
             createStatusHistory(appointment, oldStatus, status, notes, doctor);
 
             // Handle recheck appointment if requested
+            String recheckWarning = null;
             if (Boolean.TRUE.equals(scheduleRecheck) && recheckDateTime != null && !recheckDateTime.trim().isEmpty()) {
                 try {
                     LocalDateTime recheckTime = parseDateTime(recheckDateTime);
+                    Integer patientUserId = appointment.getPatientUser().getUserId();
                     
-                    // Create recheck appointment
-                    Appointment recheckAppointment = new Appointment();
-                    recheckAppointment.setPatientUser(appointment.getPatientUser());
-                    recheckAppointment.setDoctorUser(appointment.getDoctorUser());
-                    recheckAppointment.setAppointmentDateTime(recheckTime);
-                    recheckAppointment.setDurationMinutes(30); // Default duration for recheck
-                    recheckAppointment.setStatus("Scheduled");
-                    recheckAppointment.setAppointmentNotes("Recheck appointment");
-
-                    Appointment savedRecheck = appointmentRepository.save(recheckAppointment);
-                    createStatusHistory(savedRecheck, null, "Scheduled", "Recheck appointment scheduled", doctor);
-
-                    logger.info("Recheck appointment scheduled for {}", recheckTime);
+                    if (hasConfirmedConflict(doctorUserId, patientUserId, recheckTime, appointmentId)) {
+                        logger.warn("Recheck appointment at {} conflicts with an existing appointment, not scheduled", recheckTime);
+                        recheckWarning = "the recheck appointment was not scheduled because it conflicts with another appointment";
+                    } else {
+                        // Create recheck appointment
+                        Appointment recheckAppointment = new Appointment();
+                        recheckAppointment.setPatientUser(appointment.getPatientUser());
+                        recheckAppointment.setDoctorUser(appointment.getDoctorUser());
+                        recheckAppointment.setAppointmentDateTime(recheckTime);
+                        recheckAppointment.setDurationMinutes(30); // Default duration for recheck
+                        recheckAppointment.setStatus("Scheduled");
+                        recheckAppointment.setAppointmentNotes("Recheck appointment");
+
+                        Appointment savedRecheck = appointmentRepository.save(recheckAppointment);
+                        appointmentIntervalIndex.add(savedRecheck);
+                        createStatusHistory(savedRecheck, null, "Scheduled", "Recheck appointment scheduled", doctor);
+
+                        logger.info("Recheck appointment scheduled for {}", recheckTime);
+                    }
                 } catch (Exception e) {
                     logger.error("Failed to schedule recheck appointment: {}", e.getMessage());
                     // Don't fail the main update if recheck scheduling fails
+                    recheckWarning = "the recheck appointment could not be scheduled";
                 }
             }
 
             logger.info("Appointment {} status updated to {} by doctor {}", appointmentId, status, doctorUserId);
+            if (recheckWarning != null) {
+                return MessageResponse.success("Appointment status updated, but " + recheckWarning);
+            }
             return MessageResponse.success("Appointment status updated successfully!");
 
         } catch (Exception e) {
@@ -536,6 +523,113 @@ public class AppointmentService {
         }
     }
 
+    /**
+     * Update the status of several of a doctor's appointments at once.
+     * Ownership is checked with one query, and the updates and status history entries are each written
+     * as one JDBC batch. Returns a result per item; items that fail validation do not stop the others.
+     */
+    @Transactional
+    public Map<String, Object> bulkUpdateAppointmentStatus(Integer doctorUserId,
+                                                           List<BulkAppointmentStatusRequest.Item> items) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        try {
+            Set<Integer> appointmentIds = new HashSet<>();
+            for (BulkAppointmentStatusRequest.Item item : items) {
+                if (item.getAppointmentId() != null) {
+                    appointmentIds.add(item.getAppointmentId());
+                }
+            }
+
+            // [appointmentId, doctorUserId, patientUserId, status, appointmentDateTime]
+            Map<Integer, Object[]> rows = new HashMap<>();
+            if (!appointmentIds.isEmpty()) {
+                for (Object[] row : appointmentRepository.findStatusRowsByIdIn(appointmentIds)) {
+                    rows.put((Integer) row[0], row);
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            AppointmentStatusUpdateResult[] results = new AppointmentStatusUpdateResult[items.size()];
+            List<Integer> updatedPositions = new ArrayList<>();
+            List<AppointmentRepositoryCustom.StatusUpdate> updates = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (int i = 0; i < items.size(); i++) {
+                BulkAppointmentStatusRequest.Item item = items.get(i);
+                Integer appointmentId = item.getAppointmentId();
+                Object[] row = appointmentId != null ? rows.get(appointmentId) : null;
+
+                if (appointmentId == null || item.getStatus() == null || item.getStatus().isBlank()) {
+                    results[i] = new AppointmentStatusUpdateResult(appointmentId, false, "Appointment ID and status are required");
+                } else if (!seen.add(appointmentId)) {
+                    results[i] = new AppointmentStatusUpdateResult(appointmentId, false, "Appointment is listed more than once");
+                } else if (row == null) {
+                    results[i] = new AppointmentStatusUpdateResult(appointmentId, false, "Appointment not found");
+                } else if (!doctorUserId.equals(row[1])) {
+                    results[i] = new AppointmentStatusUpdateResult(appointmentId, false,
+                            "You don't have permission to update this appointment");
+                } else {
+                    updates.add(new AppointmentRepositoryCustom.StatusUpdate(
+                            appointmentId, doctorUserId, item.getStatus(), item.getNotes(), now));
+                    updatedPositions.add(i);
+                }
+            }
+
+            int[] counts = appointmentRepository.batchUpdateStatus(updates);
+
+            User doctor = new User();
+            doctor.setUserId(doctorUserId);
+            List<AppointmentStatusHistory> history = new ArrayList<>(updates.size());
+            for (int j = 0; j < updates.size(); j++) {
+                AppointmentRepositoryCustom.StatusUpdate update = updates.get(j);
+                int position = updatedPositions.get(j);
+                // SUCCESS_NO_INFO (-2) is reported by some drivers for successful batch statements
+                if (counts[j] == 0) {
+                    results[position] = new AppointmentStatusUpdateResult(update.appointmentId(), false,
+                            "Appointment could not be updated");
+                    continue;
+                }
+
+                Object[] row = rows.get(update.appointmentId());
+                Appointment appointment = new Appointment();
+                appointment.setAppointmentId(update.appointmentId());
+                appointment.setDoctorUser(doctor);
+                User patient = new User();
+                patient.setUserId((Integer) row[2]);
+                appointment.setPatientUser(patient);
+                appointment.setAppointmentDateTime((LocalDateTime) row[4]);
+                appointment.setStatus(update.status());
+                appointmentIntervalIndex.add(appointment);
+
+                AppointmentStatusHistory entry = new AppointmentStatusHistory();
+                entry.setAppointment(appointment);
+                entry.setOldStatus((String) row[3]);
+                entry.setNewStatus(update.status());
+                entry.setChangeReason(update.notes());
+                entry.setChangedAt(now);
+                entry.setChangedByUser(doctor);
+                history.add(entry);
+
+                results[position] = new AppointmentStatusUpdateResult(update.appointmentId(), true,
+                        "Appointment status updated successfully!");
+            }
+            appointmentStatusHistoryRepository.batchInsert(history);
+
+            logger.info("Doctor {} updated the status of {} of {} appointments", doctorUserId, history.size(), items.size());
+            response.put("success", true);
+            response.put("updated", history.size());
+            response.put("failed", items.size() - history.size());
+            response.put("results", List.of(results));
+            return response;
+
+        } catch (Exception e) {
+            logger.error("Error bulk updating appointment status: {}", e.getMessage(), e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            response.put("success", false);
+            response.put("message", "Failed to update appointment status: " + e.getMessage());
+            return response;
+        }
+    }
+
     /**
      * Get patient record for appointment
      */
@@ -1,7 +1,9 @@
 package com.hivclinic.service;
 
 import com.hivclinic.exception.ResourceNotFoundException;
+import com.hivclinic.exception.TooManyLoginAttemptsException;
 
+import com.hivclinic.config.CustomUserDetailsService;
 import com.hivclinic.config.JwtUtils;
 import com.hivclinic.dto.request.ChangePasswordRequest;
 import com.hivclinic.dto.request.LoginRequest;
@@ -61,6 +63,12 @@ public class AuthService {
     
     @Autowired
     private UserSessionService userSessionService;
+    
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
 
     /**
      * Register a new user (Patient by default for MVP)
@@ -138,6 +146,13 @@ public class AuthService {
      * Authenticate user and generate JWT token with login activity tracking
      */
     public AuthResponse authenticateUser(LoginRequest loginRequest, String ipAddress, String userAgent) {
+        // Brute-force check against in-memory failure counters, no LoginActivity COUNT queries
+        if (loginAttemptTracker.isThrottled(loginRequest.getUsername(), ipAddress)) {
+            logger.warn("Login throttled for user: {} from IP: {}", loginRequest.getUsername(), ipAddress);
+            loginActivityService.logThrottledAttempt(loginRequest.getUsername(), ipAddress, userAgent);
+            throw new TooManyLoginAttemptsException("Too many failed login attempts. Please try again later.");
+        }
+        
         try {
             // Authenticate user
             Authentication authentication = authenticationManager.authenticate(
@@ -151,11 +166,13 @@ public class AuthService {
             com.hivclinic.config.CustomUserDetailsService.UserPrincipal userPrincipal =
                     (com.hivclinic.config.CustomUserDetailsService.UserPrincipal) authentication.getPrincipal();
 
-            // Generate JWT token
+            // Generate JWT token carrying a new session ID and version
             String jwt = jwtUtils.generateJwtToken(
                     userPrincipal.getUsername(),
                     userPrincipal.getId(),
-                    userPrincipal.getRole()
+                    userPrincipal.getRole(),
+                    java.util.UUID.randomUUID().toString(),
+                    System.currentTimeMillis()
             );
 
             // Log successful login attempt
@@ -370,6 +387,7 @@ public class AuthService {
                 doctorProfileRepository.save(profile); // ensure save after update
             }
             // Optionally update email on user entity if needed
+            userDetailsService.evictCachedUser(user.getUsername());
             return MessageResponse.success("Profile updated successfully!");
         } catch (Exception e) {
             logger.error("Error updating profile: {}", e.getMessage(), e);
@@ -444,6 +462,7 @@ public class AuthService {
             user.setUpdatedAt(java.time.LocalDateTime.now());
             
             userRepository.save(user);
+            userDetailsService.evictCachedUser(user.getUsername());
             
             logger.info("Password changed successfully for user: {}", user.getUsername());
             return MessageResponse.success("Password changed successfully");
@@ -3,7 +3,8 @@ package com.hivclinic.service;
 import com.hivclinic.model.LoginActivity;
 import com.hivclinic.model.User;
 import com.hivclinic.repository.LoginActivityRepository;
-import com.hivclinic.repository.UserRepository;
+import com.hivclinic.repository.LoginActivityRepositoryCustom.LoginActivityRow;
+import com.hivclinic.repository.UserSessionRepositoryCustom.ExpiredSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,8 +13,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,40 +27,44 @@ public class LoginActivityService {
     
     private static final Logger logger = LoggerFactory.getLogger(LoginActivityService.class);
     
+    // User agent recorded for session timeouts, which are not login attempts
+    public static final String SESSION_TIMEOUT_MARKER = "SESSION_TIMEOUT";
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    
     @Autowired
     private LoginActivityRepository loginActivityRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private LoginAuditWriter loginAuditWriter;
+    
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
     
     /**
-     * Log a login attempt (success or failure)
+     * Audit a login refused by the throttle. It is not counted as another failure,
+     * so retrying while locked out does not extend the lockout.
+     */
+    public void logThrottledAttempt(String username, String ipAddress, String userAgent) {
+        try {
+            loginAuditWriter.submit(username, false, ipAddress, userAgent);
+            logger.info("Throttled login attempt logged - Username: {}, IP: {}", username, ipAddress);
+        } catch (Exception e) {
+            logger.error("Error logging throttled login attempt for username {}: {}", username, e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Log a login attempt (success or failure).
+     * The record is queued and written in the background by {@link LoginAuditWriter}.
      */
-    @Transactional
     public void logLoginAttempt(String username, boolean success, String ipAddress, String userAgent) {
         try {
-            LoginActivity loginActivity = new LoginActivity();
-            loginActivity.setUsernameAttempted(username);
-            loginActivity.setIsSuccess(success);
-            loginActivity.setIpAddress(ipAddress);
-            loginActivity.setUserAgent(userAgent);
-            
-            // Set user if login was successful or if user exists
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            if (userOpt.isPresent()) {
-                loginActivity.setUser(userOpt.get());
-                
-                // Update last login time if successful
-                if (success) {
-                    User user = userOpt.get();
-                    user.setLastLoginAt(LocalDateTime.now());
-                    userRepository.save(user);
-                    logger.info("Updated last login time for user: {}", username);
-                }
+            loginAuditWriter.submit(username, success, ipAddress, userAgent);
+            if (!SESSION_TIMEOUT_MARKER.equals(userAgent)) {
+                loginAttemptTracker.recordAttempt(username, ipAddress, success);
             }
             
-            loginActivityRepository.save(loginActivity);
-            
             logger.info("Login attempt logged - Username: {}, Success: {}, IP: {}", 
                     username, success, ipAddress);
             
@@ -63,6 +73,34 @@ public class LoginActivityService {
         }
     }
     
+    /**
+     * Log SESSION_TIMEOUT entries for sessions expired in bulk, as one batched insert
+     */
+    @Transactional
+    public int logSessionTimeouts(List<ExpiredSession> expiredSessions) {
+        if (expiredSessions.isEmpty()) {
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<LoginActivity> activities = new ArrayList<>(expiredSessions.size());
+        for (ExpiredSession session : expiredSessions) {
+            User user = new User();
+            user.setUserId(session.userId());
+            
+            LoginActivity activity = new LoginActivity();
+            activity.setUser(user);
+            activity.setUsernameAttempted(session.username());
+            activity.setAttemptTime(now);
+            activity.setIsSuccess(false);
+            activity.setIpAddress(session.ipAddress());
+            activity.setUserAgent(SESSION_TIMEOUT_MARKER);
+            activities.add(activity);
+        }
+        
+        return loginActivityRepository.batchInsert(activities);
+    }
+    
     /**
      * Get the last successful login time for a user
      */
@@ -128,6 +166,77 @@ public class LoginActivityService {
         }
     }
     
+    /**
+     * Get login statistics for a user from a single aggregate query
+     */
+    public Map<String, Object> getLoginStats(User user) {
+        long totalAttempts = 0;
+        long successfulCount = 0;
+        LocalDateTime lastLoginTime = null;
+        try {
+            List<Object[]> rows = loginActivityRepository.getLoginStatsForUser(user);
+            if (!rows.isEmpty()) {
+                Object[] row = rows.get(0);
+                totalAttempts = row[0] != null ? ((Number) row[0]).longValue() : 0;
+                successfulCount = row[1] != null ? ((Number) row[1]).longValue() : 0;
+                lastLoginTime = (LocalDateTime) row[2];
+            }
+        } catch (Exception e) {
+            logger.error("Error getting login statistics for user {}: {}", user.getUsername(), e.getMessage(), e);
+        }
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalAttempts", totalAttempts);
+        stats.put("successfulLogins", successfulCount);
+        stats.put("failedAttempts", totalAttempts - successfulCount);
+        stats.put("successRate", totalAttempts > 0 ? (double) successfulCount / totalAttempts * 100 : 0);
+        stats.put("lastLoginTime", lastLoginTime);
+        return stats;
+    }
+    
+    /**
+     * Get one page of all login activities, newest first, continuing after the given cursor.
+     * Uses keyset pagination on (AttemptTime, LogID), so every page costs the same; pass the returned
+     * nextCursor to get the following page. The cursor keeps AttemptTime at full precision, so rows
+     * sharing a second are not skipped.
+     */
+    public Map<String, Object> getLoginActivityPage(String cursor, Integer userId, String ipAddress,
+                                                    Boolean success, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime beforeTime = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                beforeTime = LocalDateTime.parse(parts[0]);
+                beforeId = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        
+        // Fetch one extra row to tell whether another page follows
+        List<LoginActivityRow> rows = loginActivityRepository.findPageBefore(
+                beforeTime, beforeId, userId, ipAddress, success, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<LoginActivityRow> content = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", content);
+        page.put("size", pageSize);
+        page.put("hasMore", hasMore);
+        if (hasMore) {
+            LoginActivityRow last = content.get(content.size() - 1);
+            page.put("nextCursor", encodeCursor(last.attemptTime(), last.logId()));
+        }
+        return page;
+    }
+    
+    private String encodeCursor(LocalDateTime attemptTime, Long logId) {
+        String raw = attemptTime + "|" + logId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
     /**
      * Get login activities within date range
      */
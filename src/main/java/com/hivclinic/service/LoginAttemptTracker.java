@@ -0,0 +1,237 @@
+package com.hivclinic.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory sliding-window counters of failed logins per username and per IP address.
+ * Replaces COUNT queries over LoginActivity for brute-force checks: each counter is a fixed
+ * ring of one-minute buckets, so recording and reading are constant time. Usernames are tracked
+ * trimmed and lower-cased, as Users are matched case-insensitively by the database collation.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+    private static final long BUCKET_MILLIS = 60_000L;
+
+    // Upper bound on tracked keys, protects memory against username/IP spraying
+    static final int MAX_TRACKED_KEYS = 100_000;
+
+    @Value("${app.login-throttle.window-minutes:15}")
+    private int windowMinutes = 15;
+
+    @Value("${app.login-throttle.max-failures-per-username:5}")
+    private int maxFailuresPerUsername = 5;
+
+    @Value("${app.login-throttle.max-failures-per-ip:20}")
+    private int maxFailuresPerIp = 20;
+
+    private final Map<String, SlidingWindowCounter> usernameFailures = new ConcurrentHashMap<>();
+    private final Map<String, SlidingWindowCounter> ipFailures = new ConcurrentHashMap<>();
+
+    /**
+     * Record a login attempt. A success clears the username's failures; the IP counter is kept.
+     */
+    public void recordAttempt(String username, String ipAddress, boolean success) {
+        long bucket = currentBucket();
+        username = usernameKey(username);
+        if (success) {
+            if (username != null) {
+                usernameFailures.remove(username);
+            }
+            return;
+        }
+        if (username != null) {
+            increment(counterFor(usernameFailures, username, maxFailuresPerUsername), bucket);
+        }
+        if (ipAddress != null) {
+            increment(counterFor(ipFailures, ipAddress, maxFailuresPerIp), bucket);
+        }
+    }
+
+    /**
+     * Whether further login attempts for this username or from this IP should be refused
+     */
+    public boolean isThrottled(String username, String ipAddress) {
+        return getUsernameFailures(username) >= maxFailuresPerUsername
+                || getIpFailures(ipAddress) >= maxFailuresPerIp;
+    }
+
+    public int getUsernameFailures(String username) {
+        return count(usernameFailures, usernameKey(username));
+    }
+
+    public int getIpFailures(String ipAddress) {
+        return count(ipFailures, ipAddress);
+    }
+
+    public void resetUsername(String username) {
+        String key = usernameKey(username);
+        if (key != null) {
+            usernameFailures.remove(key);
+        }
+    }
+
+    public void resetIp(String ipAddress) {
+        ipFailures.remove(ipAddress);
+    }
+
+    /**
+     * Current counters with at least one failure in the window, highest first, for the admin view
+     */
+    public Map<String, Object> getSnapshot() {
+        long bucket = currentBucket();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("windowMinutes", windowMinutes);
+        snapshot.put("maxFailuresPerUsername", maxFailuresPerUsername);
+        snapshot.put("maxFailuresPerIp", maxFailuresPerIp);
+        snapshot.put("usernames", snapshotOf(usernameFailures, bucket, maxFailuresPerUsername));
+        snapshot.put("ipAddresses", snapshotOf(ipFailures, bucket, maxFailuresPerIp));
+        return snapshot;
+    }
+
+    /**
+     * Drop counters with no failures left in the window - runs every 5 minutes
+     */
+    @Scheduled(fixedRate = 300000)
+    public void purgeIdleCounters() {
+        long bucket = currentBucket();
+        usernameFailures.values().removeIf(counter -> counter.count(bucket, windowMinutes) == 0);
+        ipFailures.values().removeIf(counter -> counter.count(bucket, windowMinutes) == 0);
+    }
+
+    private SlidingWindowCounter counterFor(Map<String, SlidingWindowCounter> counters, String key, int limit) {
+        SlidingWindowCounter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= MAX_TRACKED_KEYS) {
+            purgeIdleCounters();
+            if (counters.size() >= MAX_TRACKED_KEYS) {
+                evictLeastRecent(counters, limit);
+            }
+            if (counters.size() >= MAX_TRACKED_KEYS) {
+                // Every tracked key is locked out; those are kept, and the new key is not tracked
+                logger.warn("Login attempt tracker full with {} throttled keys, not tracking {}", MAX_TRACKED_KEYS, key);
+                return null;
+            }
+        }
+        return counters.computeIfAbsent(key, k -> new SlidingWindowCounter(windowMinutes));
+    }
+
+    /**
+     * Drop the least recently failed tenth of the counters that are below the lockout limit.
+     * Throttled counters are never dropped, so spraying new keys cannot lift an active lockout.
+     */
+    private void evictLeastRecent(Map<String, SlidingWindowCounter> counters, int limit) {
+        long bucket = currentBucket();
+        List<Map.Entry<String, SlidingWindowCounter>> candidates = new ArrayList<>();
+        for (Map.Entry<String, SlidingWindowCounter> entry : counters.entrySet()) {
+            if (entry.getValue().count(bucket, windowMinutes) < limit) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastBucket()));
+
+        int toEvict = Math.min(candidates.size(), Math.max(1, MAX_TRACKED_KEYS / 10));
+        for (int i = 0; i < toEvict; i++) {
+            counters.remove(candidates.get(i).getKey(), candidates.get(i).getValue());
+        }
+        logger.warn("Login attempt tracker reached {} keys, evicted {} least recent unthrottled keys",
+                MAX_TRACKED_KEYS, toEvict);
+    }
+
+    /**
+     * Key for a username, so case and whitespace variants of one account share a counter
+     */
+    private static String usernameKey(String username) {
+        return username != null ? username.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static void increment(SlidingWindowCounter counter, long bucket) {
+        if (counter != null) {
+            counter.increment(bucket);
+        }
+    }
+
+    private int count(Map<String, SlidingWindowCounter> counters, String key) {
+        if (key == null) {
+            return 0;
+        }
+        SlidingWindowCounter counter = counters.get(key);
+        return counter != null ? counter.count(currentBucket(), windowMinutes) : 0;
+    }
+
+    private List<Map<String, Object>> snapshotOf(Map<String, SlidingWindowCounter> counters, long bucket, int limit) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        counters.forEach((key, counter) -> {
+            int failures = counter.count(bucket, windowMinutes);
+            if (failures > 0) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("key", key);
+                entry.put("failures", failures);
+                entry.put("throttled", failures >= limit);
+                entries.add(entry);
+            }
+        });
+        entries.sort(Comparator.comparing((Map<String, Object> entry) -> (Integer) entry.get("failures")).reversed());
+        return entries;
+    }
+
+    private static long currentBucket() {
+        return System.currentTimeMillis() / BUCKET_MILLIS;
+    }
+
+    /**
+     * Ring of per-minute failure counts covering the window
+     */
+    static class SlidingWindowCounter {
+        private final long[] bucketIds;
+        private final int[] counts;
+
+        SlidingWindowCounter(int buckets) {
+            this.bucketIds = new long[buckets];
+            this.counts = new int[buckets];
+        }
+
+        synchronized void increment(long bucket) {
+            int index = (int) (bucket % bucketIds.length);
+            if (bucketIds[index] != bucket) {
+                bucketIds[index] = bucket;
+                counts[index] = 0;
+            }
+            counts[index]++;
+        }
+
+        synchronized long lastBucket() {
+            long last = 0;
+            for (long bucketId : bucketIds) {
+                last = Math.max(last, bucketId);
+            }
+            return last;
+        }
+
+        synchronized int count(long bucket, int windowBuckets) {
+            int total = 0;
+            for (int i = 0; i < bucketIds.length; i++) {
+                if (bucket - bucketIds[i] < windowBuckets) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
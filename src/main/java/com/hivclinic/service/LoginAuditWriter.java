@@ -0,0 +1,373 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.LoginActivity;
+import com.hivclinic.model.User;
+import com.hivclinic.repository.LoginActivityRepository;
+import com.hivclinic.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Background writer for login auditing.
+ * Login attempts are queued in memory and written as one batched LoginActivity insert plus one
+ * batched LastLoginAt update per flush, so the login request does not wait on audit writes.
+ * Audit records are never dropped:
+ * <ul>
+ *   <li>while the database is unavailable, records stay queued and flushes back off; records that do
+ *       not fit in the queue are appended to a local spill file, which is replayed once writes succeed again</li>
+ *   <li>when a batch is rejected for its data (a constraint or truncation error), its records are
+ *       written one by one, and a record the database rejects on its own is appended to the rejected file</li>
+ * </ul>
+ */
+@Component
+public class LoginAuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAuditWriter.class);
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    // Backoff between flushes while the database is unavailable
+    private static final long MIN_BACKOFF_MILLIS = 1000L;
+    private static final long MAX_BACKOFF_MILLIS = 60_000L;
+
+    // Column sizes of LoginActivity; the values come from client-controlled headers and request bodies
+    private static final int MAX_USERNAME_LENGTH = 255;
+    private static final int MAX_IP_ADDRESS_LENGTH = 45;
+
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String REJECTED_SUFFIX = ".rejected";
+
+    @Autowired
+    private LoginActivityRepository loginActivityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Append-only file for records that could not be queued or written; replayed when the database is back
+    @Value("${app.login-audit.spill-file:login-audit-spill.log}")
+    private String spillFile = "login-audit-spill.log";
+
+    private final BlockingQueue<LoginActivity> queue;
+
+    // Guards the spill files separately, so request threads spilling records never wait on a flush
+    private final Object fileLock = new Object();
+
+    private volatile long backoffUntilMillis;
+    private int consecutiveFailures;
+
+    public LoginAuditWriter(@Value("${app.login-audit.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Queue a login attempt. If the queue is full it is written synchronously, or spilled to the
+     * local file while the database is known to be unavailable.
+     */
+    public void submit(String username, boolean success, String ipAddress, String userAgent) {
+        LoginActivity activity = new LoginActivity();
+        activity.setUsernameAttempted(truncate(username, MAX_USERNAME_LENGTH));
+        activity.setIsSuccess(success);
+        activity.setIpAddress(truncate(ipAddress, MAX_IP_ADDRESS_LENGTH));
+        activity.setUserAgent(userAgent);
+        activity.setAttemptTime(LocalDateTime.now());
+
+        if (queue.offer(activity)) {
+            return;
+        }
+        if (isBackingOff()) {
+            spill(List.of(activity));
+            return;
+        }
+        logger.warn("Login audit queue full, writing attempt for {} synchronously", username);
+        try {
+            write(List.of(activity));
+        } catch (Exception e) {
+            logger.error("Synchronous login audit write failed, spilling record: {}", e.getMessage());
+            spill(List.of(activity));
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Write queued login attempts, then replay spilled ones - runs every second
+     */
+    @Scheduled(fixedDelayString = "${app.login-audit.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (isBackingOff()) {
+            return;
+        }
+        // Only handle what is queued now, so records put back after a failed write wait for the next run
+        int pending = queue.size();
+        List<LoginActivity> batch = new ArrayList<>(Math.min(pending, MAX_BATCH_SIZE));
+        while (pending > 0) {
+            int drained = queue.drainTo(batch, Math.min(pending, MAX_BATCH_SIZE));
+            if (drained == 0) {
+                break;
+            }
+            pending -= drained;
+            if (!writeBatch(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+        replaySpilled();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        logger.info("Draining {} queued login audit records", queue.size());
+        backoffUntilMillis = 0;
+        flush();
+
+        List<LoginActivity> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+    }
+
+    /**
+     * Write a drained batch, returning false if the database is unavailable. Records of a batch rejected
+     * for its data are written one by one; records of a batch that failed otherwise are kept for later.
+     */
+    private boolean writeBatch(List<LoginActivity> batch) {
+        try {
+            write(batch);
+            onWriteSucceeded();
+            logger.debug("Wrote {} login audit records", batch.size());
+            return true;
+        } catch (Exception e) {
+            if (!isRowSpecific(e)) {
+                onWriteFailed(batch.size(), e);
+                requeue(batch);
+                return false;
+            }
+            logger.warn("Login audit batch of {} rejected, writing records individually: {}", batch.size(), e.getMessage());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            LoginActivity activity = batch.get(i);
+            try {
+                write(List.of(activity));
+            } catch (Exception e) {
+                if (!isRowSpecific(e)) {
+                    onWriteFailed(batch.size() - i, e);
+                    requeue(batch.subList(i, batch.size()));
+                    return false;
+                }
+                logger.error("Login audit record for {} rejected by the database, keeping it in {}: {}",
+                        activity.getUsernameAttempted(), spillFile + REJECTED_SUFFIX, e.getMessage());
+                append(Paths.get(spillFile + REJECTED_SUFFIX), List.of(activity));
+            }
+        }
+        onWriteSucceeded();
+        return true;
+    }
+
+    /**
+     * Write records spilled while the database was unavailable, once it accepts writes again
+     */
+    private void replaySpilled() {
+        Path spill = Paths.get(spillFile);
+        Path replay = Paths.get(spillFile + REPLAY_SUFFIX);
+        try {
+            // A replay file left by an interrupted run is finished first
+            if (!Files.exists(replay)) {
+                if (!Files.exists(spill) || Files.size(spill) == 0) {
+                    return;
+                }
+                synchronized (fileLock) {
+                    Files.move(spill, replay, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            List<String> lines = Files.readAllLines(replay, StandardCharsets.UTF_8);
+            logger.info("Replaying {} spilled login audit records", lines.size());
+            for (int from = 0; from < lines.size(); from += MAX_BATCH_SIZE) {
+                List<LoginActivity> batch = new ArrayList<>();
+                for (String line : lines.subList(from, Math.min(from + MAX_BATCH_SIZE, lines.size()))) {
+                    if (!line.isBlank()) {
+                        batch.add(fromLine(line));
+                    }
+                }
+                if (!batch.isEmpty() && !writeBatch(batch)) {
+                    // Put back into the queue by writeBatch; the rest stays in the replay file
+                    rewrite(replay, lines.subList(Math.min(from + MAX_BATCH_SIZE, lines.size()), lines.size()));
+                    return;
+                }
+            }
+            Files.delete(replay);
+        } catch (IOException e) {
+            logger.error("Could not replay spilled login audit records from {}: {}", replay, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Insert a batch of login attempts and coalesce LastLoginAt updates per user, in one transaction
+     */
+    private void write(List<LoginActivity> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> usernames = new HashSet<>();
+            for (LoginActivity activity : batch) {
+                usernames.add(activity.getUsernameAttempted());
+            }
+
+            Map<String, Integer> userIds = new HashMap<>();
+            for (Object[] row : userRepository.findUserIdsByUsernames(usernames)) {
+                userIds.put((String) row[1], (Integer) row[0]);
+            }
+
+            Map<Integer, LocalDateTime> lastLogins = new HashMap<>();
+            for (LoginActivity activity : batch) {
+                Integer userId = userIds.get(activity.getUsernameAttempted());
+                if (userId == null) {
+                    continue;
+                }
+                User user = new User();
+                user.setUserId(userId);
+                activity.setUser(user);
+
+                if (Boolean.TRUE.equals(activity.getIsSuccess())) {
+                    lastLogins.merge(userId, activity.getAttemptTime(),
+                            (current, incoming) -> incoming.isAfter(current) ? incoming : current);
+                }
+            }
+
+            loginActivityRepository.batchInsert(batch);
+            userRepository.batchUpdateLastLoginAt(lastLogins);
+        });
+    }
+
+    /**
+     * Put records back in the queue, spilling the ones that no longer fit
+     */
+    private void requeue(Collection<LoginActivity> activities) {
+        List<LoginActivity> overflow = new ArrayList<>();
+        for (LoginActivity activity : activities) {
+            if (!queue.offer(activity)) {
+                overflow.add(activity);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            spill(overflow);
+        }
+    }
+
+    private void spill(List<LoginActivity> activities) {
+        append(Paths.get(spillFile), activities);
+    }
+
+    private void append(Path file, List<LoginActivity> activities) {
+        List<String> lines = new ArrayList<>(activities.size());
+        for (LoginActivity activity : activities) {
+            lines.add(toLine(activity));
+        }
+        try {
+            synchronized (fileLock) {
+                Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            // Last resort: the log keeps what the file could not
+            logger.error("Could not save {} login audit records to {}: {}", activities.size(), file, e.getMessage(), e);
+            for (LoginActivity activity : activities) {
+                logger.error("Unsaved login audit record - Username: {}, Success: {}, IP: {}, Time: {}",
+                        activity.getUsernameAttempted(), activity.getIsSuccess(),
+                        activity.getIpAddress(), activity.getAttemptTime());
+            }
+        }
+    }
+
+    private static void rewrite(Path file, List<String> lines) throws IOException {
+        Files.write(file, lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private boolean isBackingOff() {
+        return System.currentTimeMillis() < backoffUntilMillis;
+    }
+
+    private void onWriteSucceeded() {
+        consecutiveFailures = 0;
+        backoffUntilMillis = 0;
+    }
+
+    private void onWriteFailed(int records, Exception e) {
+        consecutiveFailures++;
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(consecutiveFailures - 1, 16));
+        backoffUntilMillis = System.currentTimeMillis() + backoff;
+        logger.error("Error writing {} login audit records, keeping them and retrying in {} ms: {}",
+                records, backoff, e.getMessage(), e);
+    }
+
+    /**
+     * Whether the failure is caused by the data written rather than by the database being unavailable
+     */
+    private static boolean isRowSpecific(Exception e) {
+        return e instanceof DataIntegrityViolationException;
+    }
+
+    /**
+     * One spill line per record: success, attempt time and the Base64 of each text field, tab-separated
+     */
+    private static String toLine(LoginActivity activity) {
+        return activity.getIsSuccess() + "\t" + activity.getAttemptTime() + "\t"
+                + encode(activity.getUsernameAttempted()) + "\t"
+                + encode(activity.getIpAddress()) + "\t"
+                + encode(activity.getUserAgent());
+    }
+
+    private static LoginActivity fromLine(String line) {
+        String[] fields = line.split("\t", -1);
+        LoginActivity activity = new LoginActivity();
+        activity.setIsSuccess(Boolean.parseBoolean(fields[0]));
+        activity.setAttemptTime(LocalDateTime.parse(fields[1]));
+        activity.setUsernameAttempted(decode(fields[2]));
+        activity.setIpAddress(decode(fields[3]));
+        activity.setUserAgent(decode(fields[4]));
+        return activity;
+    }
+
+    private static String encode(String value) {
+        return value != null ? Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) : "-";
+    }
+
+    private static String decode(String field) {
+        return "-".equals(field) ? null : new String(Base64.getDecoder().decode(field), StandardCharsets.UTF_8);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
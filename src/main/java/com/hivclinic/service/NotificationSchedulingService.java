@@ -5,15 +5,19 @@ import com.hivclinic.model.MedicationRoutine;
 import com.hivclinic.model.Notification;
 import com.hivclinic.repository.MedicationRoutineRepository;
 import com.hivclinic.repository.NotificationRepository;
+import com.hivclinic.repository.NotificationRepositoryCustom.SentNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -21,12 +25,37 @@ public class NotificationSchedulingService {
     
     private static final Logger logger = LoggerFactory.getLogger(NotificationSchedulingService.class);
     
+    // Leases for jobs that must run on one instance; scheduled dispatch instead splits due rows between instances
+    private static final String MEDICATION_REMINDER_JOB = "notifications.medication-reminders";
+    private static final String NOTIFICATION_PURGE_JOB = "notifications.retention-purge";
+    
+    // Rows per JDBC batch when materializing medication reminders
+    private static final int REMINDER_INSERT_BATCH_SIZE = 1000;
+    
     @Autowired
     private NotificationRepository notificationRepository;
     
     @Autowired
     private MedicationRoutineRepository medicationRoutineRepository;
     
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+    
+    @Autowired
+    private NotificationTimingWheel notificationTimingWheel;
+    
+    @Value("${app.notifications.dispatch.chunk-size:500}")
+    private int dispatchChunkSize = 500;
+    
+    @Value("${app.notifications.retention.days:30}")
+    private int retentionDays = 30;
+    
+    @Value("${app.notifications.retention.batch-size:1000}")
+    private int purgeBatchSize = 1000;
+    
+    @Value("${app.notifications.retention.max-rows-per-run:100000}")
+    private int purgeMaxRowsPerRun = 100000;
+    
     /**
      * Schedule appointment reminders at different intervals
      */
@@ -34,14 +63,28 @@ public class NotificationSchedulingService {
     public void scheduleAppointmentReminders(Appointment appointment) {
         logger.info("Scheduling appointment reminders for appointment ID: {}", appointment.getAppointmentId());
         
+        List<Notification> reminders = buildAppointmentReminders(appointment);
+        notificationRepository.saveAll(reminders);
+        notificationTimingWheel.notifyScheduled(reminders);
+        
+        logger.info("Scheduled appointment reminders for appointment ID: {}", appointment.getAppointmentId());
+    }
+    
+    /**
+     * Build the 24-hour, 1-hour and 30-minute reminders of an appointment that are still in the future, without saving them
+     */
+    public List<Notification> buildAppointmentReminders(Appointment appointment) {
+        List<Notification> reminders = new ArrayList<>(3);
+        LocalDateTime now = LocalDateTime.now();
         LocalDateTime appointmentTime = appointment.getAppointmentDateTime();
         String doctorName = appointment.getDoctorUser().getUsername();
+        Integer patientUserId = appointment.getPatientUser().getUserId();
         
         // 24-hour reminder
         LocalDateTime reminder24h = appointmentTime.minusDays(1);
-        if (reminder24h.isAfter(LocalDateTime.now())) {
-            createScheduledNotification(
-                appointment.getPatientUser().getUserId(),
+        if (reminder24h.isAfter(now)) {
+            reminders.add(buildScheduledNotification(
+                patientUserId,
                 Notification.NotificationType.APPOINTMENT_REMINDER,
                 "Appointment Reminder - Tomorrow",
                 String.format("You have an appointment with Dr. %s tomorrow at %s", doctorName, appointmentTime.toString()),
@@ -49,14 +92,14 @@ public class NotificationSchedulingService {
                 appointment.getAppointmentId(),
                 "APPOINTMENT",
                 "HIGH"
-            );
+            ));
         }
         
         // 1-hour reminder
         LocalDateTime reminder1h = appointmentTime.minusHours(1);
-        if (reminder1h.isAfter(LocalDateTime.now())) {
-            createScheduledNotification(
-                appointment.getPatientUser().getUserId(),
+        if (reminder1h.isAfter(now)) {
+            reminders.add(buildScheduledNotification(
+                patientUserId,
                 Notification.NotificationType.APPOINTMENT_REMINDER,
                 "Appointment Reminder - 1 Hour",
                 String.format("Your appointment with Dr. %s is in 1 hour at %s", doctorName, appointmentTime.toString()),
@@ -64,14 +107,14 @@ public class NotificationSchedulingService {
                 appointment.getAppointmentId(),
                 "APPOINTMENT",
                 "HIGH"
-            );
+            ));
         }
         
         // 30-minute reminder
         LocalDateTime reminder30m = appointmentTime.minusMinutes(30);
-        if (reminder30m.isAfter(LocalDateTime.now())) {
-            createScheduledNotification(
-                appointment.getPatientUser().getUserId(),
+        if (reminder30m.isAfter(now)) {
+            reminders.add(buildScheduledNotification(
+                patientUserId,
                 Notification.NotificationType.APPOINTMENT_REMINDER,
                 "Appointment Reminder - 30 Minutes",
                 String.format("Your appointment with Dr. %s is in 30 minutes at %s", doctorName, appointmentTime.toString()),
@@ -79,10 +122,10 @@ public class NotificationSchedulingService {
                 appointment.getAppointmentId(),
                 "APPOINTMENT",
                 "HIGH"
-            );
+            ));
         }
         
-        logger.info("Scheduled appointment reminders for appointment ID: {}", appointment.getAppointmentId());
+        return reminders;
     }
     
     /**
@@ -90,14 +133,43 @@ public class NotificationSchedulingService {
      */
     @Transactional
     public void scheduleRecurringMedicationReminders(MedicationRoutine routine) {
-        logger.info("Scheduling recurring medication reminders for routine ID: {}", routine.getRoutineId());
+        scheduleRecurringMedicationReminders(List.of(routine));
+    }
+    
+    /**
+     * Schedule recurring medication reminders for many routines, written with JDBC batch inserts
+     * instead of one IDENTITY insert per reminder. Returns the number of reminders written.
+     */
+    @Transactional
+    public int scheduleRecurringMedicationReminders(List<MedicationRoutine> routines) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> reminders = new ArrayList<>();
+        int scheduledRoutines = 0;
+        for (MedicationRoutine routine : routines) {
+            if (!routine.getReminderEnabled() || !routine.getIsActive()) {
+                logger.debug("Skipping reminder scheduling for inactive or disabled routine ID: {}", routine.getRoutineId());
+                continue;
+            }
+            reminders.addAll(buildMedicationReminders(routine, now));
+            scheduledRoutines++;
+        }
         
-        if (!routine.getReminderEnabled() || !routine.getIsActive()) {
-            logger.debug("Skipping reminder scheduling for inactive or disabled routine ID: {}", routine.getRoutineId());
-            return;
+        int inserted = 0;
+        for (int from = 0; from < reminders.size(); from += REMINDER_INSERT_BATCH_SIZE) {
+            inserted += notificationRepository.batchInsert(
+                reminders.subList(from, Math.min(from + REMINDER_INSERT_BATCH_SIZE, reminders.size())));
         }
+        notificationTimingWheel.notifyScheduled(reminders);
         
-        LocalDateTime now = LocalDateTime.now();
+        logger.info("Scheduled {} recurring medication reminders for {} routines", inserted, scheduledRoutines);
+        return inserted;
+    }
+    
+    /**
+     * Build a routine's reminders for the next 30 days or until its end date, without saving them
+     */
+    private List<Notification> buildMedicationReminders(MedicationRoutine routine, LocalDateTime now) {
+        List<Notification> reminders = new ArrayList<>();
         LocalDateTime endDate = routine.getEndDate() != null ? 
             routine.getEndDate().atTime(LocalTime.MAX) : 
             now.plusMonths(3); // Default to 3 months if no end date
@@ -108,7 +180,7 @@ public class NotificationSchedulingService {
         while (current.isBefore(endDate) && current.isBefore(now.plusDays(30))) {
             if (current.isAfter(now)) {
                 // Schedule reminder at the specified time
-                createScheduledNotification(
+                reminders.add(buildScheduledNotification(
                     routine.getPatientUserId(),
                     Notification.NotificationType.MEDICATION_REMINDER,
                     "Medication Reminder",
@@ -117,13 +189,13 @@ public class NotificationSchedulingService {
                     routine.getRoutineId(),
                     "MEDICATION_ROUTINE",
                     "MEDIUM"
-                );
+                ));
                 
                 // Also schedule a reminder before the medication time if configured
                 if (routine.getReminderMinutesBefore() != null && routine.getReminderMinutesBefore() > 0) {
                     LocalDateTime reminderTime = current.minusMinutes(routine.getReminderMinutesBefore());
                     if (reminderTime.isAfter(now)) {
-                        createScheduledNotification(
+                        reminders.add(buildScheduledNotification(
                             routine.getPatientUserId(),
                             Notification.NotificationType.MEDICATION_REMINDER,
                             "Medication Reminder - Upcoming",
@@ -133,14 +205,13 @@ public class NotificationSchedulingService {
                             routine.getRoutineId(),
                             "MEDICATION_ROUTINE",
                             "MEDIUM"
-                        );
+                        ));
                     }
                 }
             }
             current = current.plusDays(1);
         }
-        
-        logger.info("Scheduled recurring medication reminders for routine ID: {}", routine.getRoutineId());
+        return reminders;
     }
     
     /**
@@ -149,6 +220,16 @@ public class NotificationSchedulingService {
     private void createScheduledNotification(Integer userId, Notification.NotificationType type, 
                                            String title, String message, LocalDateTime scheduledFor,
                                            Integer relatedEntityId, String relatedEntityType, String priority) {
+        Notification notification = buildScheduledNotification(userId, type, title, message, scheduledFor,
+                relatedEntityId, relatedEntityType, priority);
+        notificationRepository.save(notification);
+        notificationTimingWheel.notifyScheduled(List.of(notification));
+        logger.debug("Created scheduled notification for user {} at {}", userId, scheduledFor);
+    }
+    
+    private Notification buildScheduledNotification(Integer userId, Notification.NotificationType type,
+                                                    String title, String message, LocalDateTime scheduledFor,
+                                                    Integer relatedEntityId, String relatedEntityType, String priority) {
         Notification notification = new Notification();
         notification.setUserId(userId);
         notification.setType(type);
@@ -159,43 +240,41 @@ public class NotificationSchedulingService {
         notification.setRelatedEntityType(relatedEntityType);
         notification.setPriority(priority);
         notification.setIsRead(false);
-        
-        notificationRepository.save(notification);
-        logger.debug("Created scheduled notification for user {} at {}", userId, scheduledFor);
+        return notification;
     }
     
     /**
-     * Process scheduled notifications - runs every 5 minutes
+     * Process scheduled notifications - runs every 5 minutes.
+     * Due rows are marked sent in bounded chunks, one UPDATE per chunk, so nothing is loaded beyond a chunk of IDs.
+     * With the timing wheel enabled this is a recovery sweep for rows it missed, so only rows already due are marked.
      */
     @Scheduled(fixedRate = 300000) // 5 minutes
-    @Transactional
     public void processScheduledNotifications() {
         logger.debug("Processing scheduled notifications");
         
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime processingWindow = now.plusMinutes(5);
-        
-        // Find notifications that should be sent now
-        List<Notification> dueNotifications = notificationRepository.findAll().stream()
-            .filter(n -> n.getScheduledFor() != null && 
-                        n.getSentAt() == null && 
-                        n.getScheduledFor().isBefore(processingWindow))
-            .toList();
-        
-        logger.debug("Found {} notifications due for processing", dueNotifications.size());
+        LocalDateTime processingWindow = notificationTimingWheel.isEnabled() ? now : now.plusMinutes(5);
         
-        for (Notification notification : dueNotifications) {
+        int processed = 0;
+        List<SentNotification> chunk;
+        do {
             try {
-                // Mark as sent
-                notification.setSentAt(now);
-                notificationRepository.save(notification);
-                
-                logger.info("Processed scheduled notification ID: {} for user: {}", 
-                           notification.getNotificationId(), notification.getUserId());
+                chunk = notificationRepository.markDueAsSent(processingWindow, now, dispatchChunkSize);
             } catch (Exception e) {
-                logger.error("Error processing scheduled notification ID: {}", 
-                           notification.getNotificationId(), e);
+                // Remaining rows are still unsent and are picked up on the next run
+                logger.error("Error processing scheduled notifications after {} were marked sent", processed, e);
+                break;
+            }
+            processed += chunk.size();
+            
+            for (SentNotification sent : chunk) {
+                logger.debug("Processed scheduled notification ID: {} for user: {}",
+                           sent.notificationId(), sent.userId());
             }
+        } while (chunk.size() >= dispatchChunkSize);
+        
+        if (processed > 0) {
+            logger.info("Processed {} scheduled notifications due before {}", processed, processingWindow);
         }
     }
     
@@ -205,6 +284,17 @@ public class NotificationSchedulingService {
     @Scheduled(cron = "0 0 * * * *") // Every hour
     @Transactional
     public void processDailyMedicationReminders() {
+        if (!schedulerLockService.tryAcquire(MEDICATION_REMINDER_JOB, Duration.ofMinutes(50))) {
+            return;
+        }
+        try {
+            sendDueMedicationReminders();
+        } finally {
+            schedulerLockService.release(MEDICATION_REMINDER_JOB, Duration.ofMinutes(5));
+        }
+    }
+    
+    private void sendDueMedicationReminders() {
         logger.debug("Processing daily medication reminders");
         
         LocalDateTime now = LocalDateTime.now();
@@ -248,22 +338,52 @@ public class NotificationSchedulingService {
     }
     
     /**
-     * Cleanup old processed notifications - runs daily at 2 AM
+     * Cleanup old processed notifications - runs daily at 2 AM.
+     * Deletes in bounded batches by SentAt, each its own short statement, up to a per-run cap.
      */
     @Scheduled(cron = "0 0 2 * * *") // Daily at 2 AM
-    @Transactional
     public void cleanupOldNotifications() {
-        logger.info("Starting cleanup of old notifications");
+        if (!schedulerLockService.tryAcquire(NOTIFICATION_PURGE_JOB, Duration.ofHours(1))) {
+            return;
+        }
+        try {
+            purgeOldNotifications();
+        } finally {
+            schedulerLockService.release(NOTIFICATION_PURGE_JOB, Duration.ofMinutes(10));
+        }
+    }
+    
+    private void purgeOldNotifications() {
+        logger.info("Starting cleanup of notifications sent more than {} days ago", retentionDays);
         
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(retentionDays);
+        int purged = 0;
+        int batches = 0;
         
-        List<Notification> oldNotifications = notificationRepository.findAll().stream()
-            .filter(n -> n.getSentAt() != null && n.getSentAt().isBefore(cutoffDate))
-            .toList();
+        while (purged < purgeMaxRowsPerRun) {
+            int limit = Math.min(purgeBatchSize, purgeMaxRowsPerRun - purged);
+            int deleted;
+            try {
+                deleted = notificationRepository.deleteSentBefore(cutoffDate, limit);
+            } catch (Exception e) {
+                logger.error("Error cleaning up old notifications after {} were deleted", purged, e);
+                break;
+            }
+            purged += deleted;
+            batches++;
+            logger.debug("Notification cleanup batch {} deleted {} rows, {} so far", batches, deleted, purged);
+            
+            if (deleted < limit) {
+                break;
+            }
+        }
         
-        if (!oldNotifications.isEmpty()) {
-            notificationRepository.deleteAll(oldNotifications);
-            logger.info("Cleaned up {} old notifications", oldNotifications.size());
+        if (purged >= purgeMaxRowsPerRun) {
+            logger.warn("Notification cleanup stopped at the cap of {} rows, the rest is deleted on the next run",
+                       purgeMaxRowsPerRun);
         }
+        logger.info("Cleaned up {} old notifications in {} batches ({} ms)",
+                   purged, batches, System.currentTimeMillis() - startedAt);
     }
-}
\ No newline at end of file
+}
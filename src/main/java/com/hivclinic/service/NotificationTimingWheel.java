@@ -0,0 +1,328 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.Notification;
+import com.hivclinic.repository.NotificationRepository;
+import com.hivclinic.repository.NotificationRepositoryCustom.PendingNotification;
+import com.hivclinic.repository.NotificationRepositoryCustom.SentNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory hierarchical timing wheel for scheduled notifications due within the next few hours.
+ * Unsent notification IDs are loaded incrementally from the database: the horizon is extended once a
+ * minute, paging by (ScheduledFor, NotificationID), and rows inserted later are picked up by ID after
+ * NotificationSchedulingService and the appointment outbox report new scheduled notifications, and once a
+ * minute for rows inserted by other instances. Loading runs on its own scheduled task, so the tick never
+ * waits on a query. Each notification is marked sent within about a second of its ScheduledFor. Rows the
+ * wheel misses (not loaded, lost on restart, capacity reached) are marked by the recovery sweep in
+ * NotificationSchedulingService.
+ */
+@Component
+public class NotificationTimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationTimingWheel.class);
+
+    private static final long TICK_MILLIS = 1000L;
+
+    // Rows read per load query
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    // IDENTITY values can become visible out of order, so new rows are re-read this many IDs behind the highest seen
+    private static final int LATE_INSERT_ID_WINDOW = 1000;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${app.notifications.timing-wheel.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.notifications.timing-wheel.horizon-minutes:180}")
+    private long horizonMinutes = 180;
+
+    @Value("${app.notifications.timing-wheel.max-entries:100000}")
+    private int maxEntries = 100000;
+
+    // Wheel state, guarded by this
+    private Wheel wheel;
+    private final Set<Integer> scheduledIds = new HashSet<>();
+
+    // Loader state, guarded by loadLock: everything ordered up to (loadedUntil, loadedUntilId) has been read
+    private final Object loadLock = new Object();
+    private LocalDateTime loadedUntil;
+    private int loadedUntilId;
+    private int lastSeenId;
+    private volatile boolean newRowsPending;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int size() {
+        return scheduledIds.size();
+    }
+
+    /**
+     * Report newly inserted notifications; once the transaction commits, the ones due inside the loaded
+     * horizon are read back by ID on the next load
+     */
+    public void notifyScheduled(List<Notification> notifications) {
+        if (!enabled || notifications.stream().noneMatch(n -> n.getScheduledFor() != null)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    newRowsPending = true;
+                }
+            });
+        } else {
+            newRowsPending = true;
+        }
+    }
+
+    /**
+     * Advance the wheel and mark due notifications sent - runs every 250 ms
+     */
+    @Scheduled(fixedRate = 250)
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Integer> due = advance(System.currentTimeMillis());
+            if (!due.isEmpty()) {
+                List<SentNotification> sent = notificationRepository.markSent(due, LocalDateTime.now());
+                for (SentNotification notification : sent) {
+                    logger.debug("Processed scheduled notification ID: {} for user: {}",
+                            notification.notificationId(), notification.userId());
+                }
+            }
+        } catch (Exception e) {
+            // Unmarked rows stay unsent and are picked up by the recovery sweep
+            logger.error("Error processing notification timing wheel: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load the initial horizon and reported inserts - runs every 250 ms
+     */
+    @Scheduled(fixedDelay = 250)
+    public void loadScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            load(System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.error("Error loading notification timing wheel: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Extend the loaded horizon and pick up rows inserted by other instances - runs every minute
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void extendHorizon() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            synchronized (loadLock) {
+                if (loadedUntil != null) {
+                    loadNewRows();
+                    loadUntil(LocalDateTime.now().plusMinutes(horizonMinutes));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error extending notification timing wheel: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load the initial horizon on first use, then rows reported since the last call
+     */
+    void load(long nowMillis) {
+        synchronized (loadLock) {
+            if (loadedUntil == null) {
+                initialize(nowMillis);
+            } else if (newRowsPending) {
+                newRowsPending = false;
+                loadNewRows();
+            }
+        }
+    }
+
+    /**
+     * Advance to {@code nowMillis}, returning the IDs that became due; nothing fires before the first load
+     */
+    synchronized List<Integer> advance(long nowMillis) {
+        if (wheel == null) {
+            return List.of();
+        }
+        List<Integer> due = wheel.advanceTo(nowMillis / TICK_MILLIS);
+        due.forEach(scheduledIds::remove);
+        return due;
+    }
+
+    private void initialize(long nowMillis) {
+        // Anything inserted from here on is found by ID; anything already due is left to the recovery sweep
+        lastSeenId = notificationRepository.findMaxNotificationId();
+        synchronized (this) {
+            wheel = new Wheel(nowMillis / TICK_MILLIS);
+        }
+        LocalDateTime start = toLocalDateTime(nowMillis);
+        loadedUntil = start;
+        loadedUntilId = Integer.MAX_VALUE;
+        loadUntil(start.plusMinutes(horizonMinutes));
+        logger.info("Notification timing wheel loaded {} notifications due before {}", size(), loadedUntil);
+    }
+
+    private void loadUntil(LocalDateTime upTo) {
+        LocalDateTime capped = LocalDateTime.now().plusMinutes(Wheel.MAX_MINUTES);
+        if (upTo.isAfter(capped)) {
+            upTo = capped;
+        }
+        while (loadedUntil.isBefore(upTo)) {
+            int limit = Math.min(LOAD_BATCH_SIZE, maxEntries - size());
+            if (limit <= 0) {
+                logger.warn("Notification timing wheel is full at {} entries, later rows are left to the sweep", maxEntries);
+                return;
+            }
+            List<PendingNotification> rows =
+                    notificationRepository.findUnsentScheduledBetween(loadedUntil, loadedUntilId, upTo, limit);
+            schedule(rows);
+            if (rows.size() < limit) {
+                loadedUntil = upTo;
+                loadedUntilId = Integer.MAX_VALUE;
+            } else {
+                // Continue after the last row, so any number of rows sharing one ScheduledFor is paged through
+                PendingNotification last = rows.get(rows.size() - 1);
+                loadedUntil = last.scheduledFor();
+                loadedUntilId = last.notificationId();
+            }
+        }
+    }
+
+    private void loadNewRows() {
+        List<PendingNotification> rows;
+        int afterId = Math.max(0, lastSeenId - LATE_INSERT_ID_WINDOW);
+        do {
+            rows = notificationRepository.findUnsentScheduledAfterId(afterId, LOAD_BATCH_SIZE);
+            List<PendingNotification> inHorizon = new ArrayList<>(rows.size());
+            for (PendingNotification row : rows) {
+                afterId = row.notificationId();
+                lastSeenId = Math.max(lastSeenId, row.notificationId());
+                // Rows past the loaded horizon are read when it is extended
+                if (!row.scheduledFor().isAfter(loadedUntil)) {
+                    inHorizon.add(row);
+                }
+            }
+            schedule(inHorizon);
+        } while (rows.size() == LOAD_BATCH_SIZE);
+    }
+
+    /**
+     * Add rows that are not already on the wheel; a row re-read just after it fired is marked sent at most once
+     */
+    private synchronized void schedule(List<PendingNotification> rows) {
+        for (PendingNotification row : rows) {
+            if (scheduledIds.size() >= maxEntries || !scheduledIds.add(row.notificationId())) {
+                continue;
+            }
+            long dueMillis = row.scheduledFor().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            // Round up so a notification never fires before its scheduled time
+            wheel.add(row.notificationId(), (dueMillis + TICK_MILLIS - 1) / TICK_MILLIS);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Three-level hashed timing wheel of 60 slots each: seconds, minutes and hours.
+     * Entries are placed on the finest level whose range covers them and cascade down as time advances,
+     * so adding and firing are constant time per entry. Not thread-safe; guarded by the enclosing wheel.
+     */
+    static class Wheel {
+        static final int SLOTS = 60;
+        static final long[] TICKS_PER_SLOT = {1, 60, 3600};
+        static final long MAX_MINUTES = (SLOTS * TICKS_PER_SLOT[2]) / 60 - 60;
+
+        private final List<List<Entry>> slots = new ArrayList<>();
+        private final List<Entry> overdue = new ArrayList<>();
+        private long currentTick;
+
+        Wheel(long startTick) {
+            this.currentTick = startTick;
+            for (int i = 0; i < TICKS_PER_SLOT.length * SLOTS; i++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+
+        void add(int notificationId, long dueTick) {
+            place(new Entry(notificationId, dueTick));
+        }
+
+        /**
+         * Move to {@code targetTick}, returning the IDs of every entry due at or before it
+         */
+        List<Integer> advanceTo(long targetTick) {
+            List<Integer> due = new ArrayList<>();
+            while (currentTick < targetTick) {
+                currentTick++;
+                for (int level = TICKS_PER_SLOT.length - 1; level > 0; level--) {
+                    if (currentTick % TICKS_PER_SLOT[level] == 0) {
+                        List<Entry> slot = slot(level, currentTick);
+                        List<Entry> cascading = new ArrayList<>(slot);
+                        slot.clear();
+                        cascading.forEach(this::place);
+                    }
+                }
+                List<Entry> slot = slot(0, currentTick);
+                slot.forEach(entry -> due.add(entry.notificationId()));
+                slot.clear();
+            }
+            overdue.forEach(entry -> due.add(entry.notificationId()));
+            overdue.clear();
+            return due;
+        }
+
+        private void place(Entry entry) {
+            long delta = entry.dueTick() - currentTick;
+            if (delta <= 0) {
+                overdue.add(entry);
+                return;
+            }
+            for (int level = 0; level < TICKS_PER_SLOT.length; level++) {
+                if (delta < TICKS_PER_SLOT[level] * SLOTS) {
+                    slot(level, entry.dueTick()).add(entry);
+                    return;
+                }
+            }
+            // Beyond the top level; callers keep the horizon inside it, so only clock jumps land here
+            slot(TICKS_PER_SLOT.length - 1, currentTick + TICKS_PER_SLOT[2] * (SLOTS - 1)).add(entry);
+        }
+
+        private List<Entry> slot(int level, long tick) {
+            return slots.get(level * SLOTS + (int) ((tick / TICKS_PER_SLOT[level]) % SLOTS));
+        }
+
+        record Entry(int notificationId, long dueTick) {}
+    }
+}
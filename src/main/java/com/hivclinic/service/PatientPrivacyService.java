@@ -5,8 +5,19 @@ import com.hivclinic.repository.PatientProfileRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class PatientPrivacyService {
@@ -15,14 +26,73 @@ public class PatientPrivacyService {
     @Autowired
     private PatientProfileRepository patientProfileRepository;
     
+    // Private flags can be kept long: a stale one only hides a patient who just went public
+    @Value("${app.privacy.cache.ttl-seconds:300}")
+    private long privacyCacheTtlSeconds = 300;
+    
+    // Public flags expire quickly, since other instances do not see this instance's evictions
+    @Value("${app.privacy.cache.public-ttl-seconds:5}")
+    private long publicCacheTtlSeconds = 5;
+    
+    @Value("${app.privacy.cache.max-entries:10000}")
+    private int privacyCacheMaxEntries = 10000;
+    
+    // Privacy flags by patient user ID; patients without a profile are cached as not private
+    private final Map<Integer, CachedFlag> privacyCache = new ConcurrentHashMap<>();
+    
+    // Bumped on every committed update; a read that overlapped one does not cache what it loaded
+    private final AtomicLong invalidations = new AtomicLong();
+    
     /**
      * Get patient's privacy settings
      */
     @Transactional(readOnly = true)
     public boolean getPrivacySettings(Integer userId) {
-        return patientProfileRepository.findByUser_UserId(userId)
+        long now = System.currentTimeMillis();
+        CachedFlag cached = privacyCache.get(userId);
+        if (cached != null && cached.expiresAtMillis > now) {
+            return cached.isPrivate;
+        }
+        
+        long generation = invalidations.get();
+        boolean isPrivate = patientProfileRepository.findByUser_UserId(userId)
             .map(PatientProfile::getIsPrivate)
             .orElse(false);
+        cache(userId, isPrivate, now, generation);
+        return isPrivate;
+    }
+    
+    /**
+     * Get privacy settings for several patients, loading all uncached flags in one query
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Boolean> getPrivacySettings(Collection<Integer> userIds) {
+        long now = System.currentTimeMillis();
+        Map<Integer, Boolean> settings = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            CachedFlag cached = privacyCache.get(userId);
+            if (cached != null && cached.expiresAtMillis > now) {
+                settings.put(userId, cached.isPrivate);
+            } else {
+                missing.add(userId);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            for (Object[] row : patientProfileRepository.findPrivacyFlagsByUserIds(missing)) {
+                settings.put((Integer) row[0], Boolean.TRUE.equals(row[1]));
+            }
+            for (Integer userId : missing) {
+                boolean isPrivate = settings.computeIfAbsent(userId, id -> false);
+                cache(userId, isPrivate, now, generation);
+            }
+        }
+        return settings;
     }
     
     /**
@@ -35,7 +105,55 @@ public class PatientPrivacyService {
         
         profile.setIsPrivate(isPrivate);
         patientProfileRepository.save(profile);
+        evictAfterCommit(userId);
         
         logger.info("Updated privacy settings for patient {}: isPrivate={}", userId, isPrivate);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Drop the cached flag once the update is visible to other transactions, so a concurrent read
+     * cannot put the old value back
+     */
+    private void evictAfterCommit(Integer userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+    
+    private void evict(Integer userId) {
+        invalidations.incrementAndGet();
+        privacyCache.remove(userId);
+    }
+    
+    private void cache(Integer userId, boolean isPrivate, long now, long generation) {
+        if (privacyCache.size() >= privacyCacheMaxEntries) {
+            privacyCache.values().removeIf(entry -> entry.expiresAtMillis <= now);
+            if (privacyCache.size() >= privacyCacheMaxEntries) {
+                privacyCache.clear();
+            }
+        }
+        long ttlSeconds = isPrivate ? privacyCacheTtlSeconds : publicCacheTtlSeconds;
+        privacyCache.put(userId, new CachedFlag(isPrivate, now + ttlSeconds * 1000));
+        // An update committed while the flag was loading may have evicted before this put
+        if (invalidations.get() != generation) {
+            privacyCache.remove(userId);
+        }
+    }
+    
+    private static class CachedFlag {
+        private final boolean isPrivate;
+        private final long expiresAtMillis;
+        
+        private CachedFlag(boolean isPrivate, long expiresAtMillis) {
+            this.isPrivate = isPrivate;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.hivclinic.service;
+
+import com.hivclinic.repository.SchedulerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Database-backed leases for @Scheduled jobs that must run on one instance at a time.
+ * Each lease is taken and released in its own transaction, so it is visible to other instances
+ * while the job is still running inside its own transaction. A crashed holder's lease runs out
+ * after its lock-at-most duration.
+ */
+@Service
+public class SchedulerLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    // Identifies this instance as the lease holder; the UUID separates restarts of the same process
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    // Single-instance deployments can turn leasing off and always run their jobs
+    @Value("${app.scheduler.lock.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * Take the lease on a job, returning false if another instance holds it or the lease table is unavailable
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String jobName, Duration lockAtMostFor) {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            boolean acquired = schedulerLockRepository.tryAcquire(jobName, owner, lockAtMostFor.toSeconds());
+            if (!acquired) {
+                logger.debug("Skipping job {}, lease held by another instance", jobName);
+            }
+            return acquired;
+        } catch (Exception e) {
+            logger.error("Error acquiring lease for job {}: {}", jobName, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Release this instance's lease on a job, keeping it until at least lockAtLeastFor after it was taken
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String jobName, Duration lockAtLeastFor) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            schedulerLockRepository.release(jobName, owner, lockAtLeastFor.toSeconds());
+        } catch (Exception e) {
+            // The lease still runs out at its lock-at-most time
+            logger.error("Error releasing lease for job {}: {}", jobName, e.getMessage(), e);
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+}
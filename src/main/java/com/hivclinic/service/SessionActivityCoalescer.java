@@ -0,0 +1,113 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.UserSession;
+import com.hivclinic.repository.UserSessionRepository;
+import com.hivclinic.repository.UserSessionRepositoryCustom.SessionActivityUpdate;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for session activity.
+ * Keeps only the latest activity time per session and flushes all pending sessions
+ * to UserSessions in one JDBC batch, instead of writing a row on every request.
+ */
+@Component
+public class SessionActivityCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionActivityCoalescer.class);
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    private final Map<Long, SessionActivityUpdate> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Record activity for a session, keeping the most recent timestamp
+     */
+    public void record(Long sessionId, LocalDateTime lastActivityAt, LocalDateTime expiresAt) {
+        if (sessionId == null || lastActivityAt == null) {
+            return;
+        }
+        pending.merge(sessionId, new SessionActivityUpdate(sessionId, lastActivityAt, expiresAt),
+                (current, incoming) -> incoming.lastActivityAt().isAfter(current.lastActivityAt()) ? incoming : current);
+    }
+
+    /**
+     * Apply not-yet-flushed activity to a session loaded from the database,
+     * so expiry checks see the real last activity time
+     */
+    public void applyPending(UserSession session) {
+        if (session == null || session.getSessionId() == null) {
+            return;
+        }
+        SessionActivityUpdate update = pending.get(session.getSessionId());
+        if (update != null && (session.getLastActivityAt() == null
+                || update.lastActivityAt().isAfter(session.getLastActivityAt()))) {
+            session.setLastActivityAt(update.lastActivityAt());
+            session.setExpiresAt(update.expiresAt());
+        }
+    }
+
+    /**
+     * Drop pending activity for a session that has been invalidated
+     */
+    public void discard(Long sessionId) {
+        if (sessionId != null) {
+            pending.remove(sessionId);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Flush pending activity to the database - runs every 5 seconds by default
+     */
+    @Scheduled(fixedDelayString = "${app.session.activity.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Write all pending activity in one batch and return the number of rows updated
+     */
+    public int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<SessionActivityUpdate> batch = new ArrayList<>(pending.size());
+        for (SessionActivityUpdate update : pending.values()) {
+            // Only remove the exact value we flush; newer activity recorded meanwhile stays pending
+            if (pending.remove(update.sessionId(), update)) {
+                batch.add(update);
+            }
+        }
+
+        try {
+            int updated = userSessionRepository.batchUpdateActivity(batch);
+            logger.debug("Flushed activity for {} sessions ({} rows updated)", batch.size(), updated);
+            return updated;
+        } catch (Exception e) {
+            logger.error("Error flushing session activity, re-queueing {} updates: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(update -> record(update.sessionId(), update.lastActivityAt(), update.expiresAt()));
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,28 @@
+package com.hivclinic.service;
+
+/**
+ * Counts reported by a bulk session expiry run
+ */
+public class SessionCleanupResult {
+    private final int expiredSessions;
+    private final int timeoutLogsWritten;
+    private final int batches;
+    
+    public SessionCleanupResult(int expiredSessions, int timeoutLogsWritten, int batches) {
+        this.expiredSessions = expiredSessions;
+        this.timeoutLogsWritten = timeoutLogsWritten;
+        this.batches = batches;
+    }
+    
+    public int getExpiredSessions() { 
+        return expiredSessions; 
+    }
+    
+    public int getTimeoutLogsWritten() { 
+        return timeoutLogsWritten; 
+    }
+    
+    public int getBatches() { 
+        return batches; 
+    }
+}
@@ -0,0 +1,191 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.SessionRevocation;
+import com.hivclinic.repository.SessionRevocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation set used by stateless session validation.
+ * Holds revoked session IDs until their token would have expired anyway, plus a per-user
+ * minimum session version so that "log out everywhere" revokes all older tokens at once.
+ * When stateless validation is enabled, revocations are written to the SessionRevocations table
+ * and every instance polls it, so a logout on one instance is honored by all of them and survives restarts.
+ */
+@Component
+public class SessionRevocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionRevocationStore.class);
+
+    // Re-read this far behind the newest row seen, for rows committed after later ones became visible
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private SessionRevocationRepository sessionRevocationRepository;
+
+    @Value("${app.jwt.expiration-ms}")
+    private long jwtExpirationMs;
+
+    @Value("${app.session.stateless-validation.enabled:false}")
+    private boolean shared;
+
+    // Session ID -> epoch millis after which the entry can be dropped
+    private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+
+    // User ID -> tokens with a lower session version are revoked
+    private final Map<Integer, Long> userMinVersions = new ConcurrentHashMap<>();
+
+    // Newest CreatedAt read from the table; null until the unexpired rows have been loaded
+    private volatile LocalDateTime lastSeenCreatedAt;
+    private volatile boolean loaded;
+
+    /**
+     * Revoke a single session until its token expiry
+     */
+    public void revokeSession(String sessionId, long tokenExpiresAtMillis) {
+        if (sessionId == null || tokenExpiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        applySession(sessionId, tokenExpiresAtMillis);
+        if (shared) {
+            SessionRevocation revocation = new SessionRevocation();
+            revocation.setSessionId(sessionId);
+            revocation.setExpiresAt(toLocalDateTime(tokenExpiresAtMillis));
+            persist(revocation);
+        }
+        logger.debug("Revoked session {}", sessionId);
+    }
+
+    /**
+     * Revoke every session of a user whose version is lower than the given one
+     */
+    public void revokeUserSessionsBefore(Integer userId, long minVersion) {
+        if (userId == null) {
+            return;
+        }
+        userMinVersions.merge(userId, minVersion, Math::max);
+        if (shared) {
+            SessionRevocation revocation = new SessionRevocation();
+            revocation.setUserId(userId);
+            revocation.setMinVersion(minVersion);
+            // Versions are issue times, so older tokens have all expired one token lifetime later
+            revocation.setExpiresAt(toLocalDateTime(minVersion + jwtExpirationMs));
+            persist(revocation);
+        }
+        logger.debug("Revoked sessions of user ID {} older than version {}", userId, minVersion);
+    }
+
+    /**
+     * Check whether a token's session has been revoked
+     */
+    public boolean isRevoked(String sessionId, Integer userId, Long sessionVersion) {
+        if (sessionId != null && revokedSessions.containsKey(sessionId)) {
+            return true;
+        }
+        if (userId != null) {
+            Long minVersion = userMinVersions.get(userId);
+            return minVersion != null && (sessionVersion == null || sessionVersion < minVersion);
+        }
+        return false;
+    }
+
+    /**
+     * Whether the set holds every revocation made on other instances; until the first load
+     * succeeds, callers must validate against UserSessions instead
+     */
+    public boolean isReady() {
+        return !shared || loaded;
+    }
+
+    public int size() {
+        return revokedSessions.size() + userMinVersions.size();
+    }
+
+    /**
+     * Pick up revocations made by other instances - runs every 2 seconds by default
+     */
+    @Scheduled(fixedDelayString = "${app.session.revocations.poll-interval-ms:2000}")
+    public void pollRevocations() {
+        if (!shared) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = lastSeenCreatedAt;
+            List<SessionRevocation> rows = since == null
+                ? sessionRevocationRepository.findByExpiresAtAfter(now)
+                : sessionRevocationRepository.findByCreatedAtGreaterThanEqualAndExpiresAtAfter(
+                    since.minusSeconds(POLL_OVERLAP_SECONDS), now);
+
+            // Rows are applied idempotently, so re-reading the overlap is harmless
+            for (SessionRevocation row : rows) {
+                apply(row);
+                if (row.getCreatedAt() != null && (since == null || row.getCreatedAt().isAfter(since))) {
+                    since = row.getCreatedAt();
+                }
+            }
+            lastSeenCreatedAt = since;
+            if (!loaded) {
+                loaded = true;
+                logger.info("Loaded {} shared session revocations", rows.size());
+            }
+        } catch (Exception e) {
+            logger.error("Error polling session revocations: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Drop revocations for tokens that can no longer be valid - runs every 10 minutes
+     */
+    @Scheduled(fixedRate = 600000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedSessions.values().removeIf(expiresAt -> expiresAt <= now);
+        // Versions are issue times, so every token older than the cutoff has expired after one token lifetime
+        userMinVersions.values().removeIf(minVersion -> minVersion + jwtExpirationMs <= now);
+        if (shared) {
+            try {
+                sessionRevocationRepository.deleteExpired(toLocalDateTime(now));
+            } catch (Exception e) {
+                logger.error("Error purging session revocations: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void apply(SessionRevocation row) {
+        if (row.getSessionId() != null) {
+            applySession(row.getSessionId(), row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        if (row.getUserId() != null && row.getMinVersion() != null) {
+            userMinVersions.merge(row.getUserId(), row.getMinVersion(), Math::max);
+        }
+    }
+
+    private void applySession(String sessionId, long expiresAtMillis) {
+        revokedSessions.merge(sessionId, expiresAtMillis, Math::max);
+    }
+
+    private void persist(SessionRevocation revocation) {
+        try {
+            sessionRevocationRepository.save(revocation);
+        } catch (Exception e) {
+            // Still applied here; other instances keep accepting the token until it expires
+            logger.error("Failed to share session revocation: {}", e.getMessage(), e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,159 @@
+package com.hivclinic.service;
+
+import com.hivclinic.config.JwtUtils;
+import com.hivclinic.model.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded in-memory cache of active user sessions, keyed by a SHA-256 digest of the session token.
+ * Lets the authentication filter validate sessions without querying UserSessions on every request.
+ */
+@Component
+public class UserSessionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSessionCache.class);
+
+    @Value("${app.session.cache.max-entries:10000}")
+    private int maxEntries = 10000;
+
+    // Entries older than this are re-read from the database so changes made by other nodes are picked up
+    @Value("${app.session.cache.revalidate-seconds:30}")
+    private long revalidateSeconds = 30;
+
+    private final Map<String, CachedSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Get a cached session that is still active, not expired and not due for revalidation
+     */
+    public Optional<CachedSession> get(String jwtToken) {
+        String key = JwtUtils.digestToken(jwtToken);
+        CachedSession cached = sessions.get(key);
+        if (cached == null) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (cached.isExpired(now) || cached.getCachedAt().plusSeconds(revalidateSeconds).isBefore(now)) {
+            sessions.remove(key, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    /**
+     * Cache an active session loaded from or written to the database
+     */
+    public void put(UserSession session) {
+        if (session == null || session.getSessionToken() == null || !Boolean.TRUE.equals(session.getIsActive())) {
+            return;
+        }
+
+        if (sessions.size() >= maxEntries) {
+            evictExpired();
+            if (sessions.size() >= maxEntries) {
+                // Still full: drop everything rather than grow unbounded, entries reload lazily
+                logger.warn("Session cache reached {} entries, clearing", maxEntries);
+                sessions.clear();
+            }
+        }
+
+        Integer userId = session.getUser() != null ? session.getUser().getUserId() : null;
+        sessions.put(JwtUtils.digestToken(session.getSessionToken()), new CachedSession(
+                session.getSessionId(),
+                userId,
+                session.getIpAddress(),
+                session.getSessionTimeoutMinutes(),
+                session.getLastActivityAt(),
+                session.getExpiresAt(),
+                LocalDateTime.now()
+        ));
+    }
+
+    /**
+     * Remove the cached entry for a session token
+     */
+    public void evict(String jwtToken) {
+        if (jwtToken != null) {
+            sessions.remove(JwtUtils.digestToken(jwtToken));
+        }
+    }
+
+    /**
+     * Remove every cached session belonging to a user
+     */
+    public void evictUser(Integer userId) {
+        if (userId != null) {
+            sessions.values().removeIf(cached -> userId.equals(cached.getUserId()));
+        }
+    }
+
+    /**
+     * Remove cached sessions whose expiry time has passed
+     */
+    public int evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int before = sessions.size();
+        sessions.values().removeIf(cached -> cached.isExpired(now));
+        return before - sessions.size();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public void clear() {
+        sessions.clear();
+    }
+
+    /**
+     * Snapshot of the session columns needed to validate and extend a session
+     */
+    public static class CachedSession {
+        private final Long sessionId;
+        private final Integer userId;
+        private final String ipAddress;
+        private final int timeoutMinutes;
+        private volatile LocalDateTime lastActivityAt;
+        private volatile LocalDateTime expiresAt;
+        private final LocalDateTime cachedAt;
+
+        public CachedSession(Long sessionId, Integer userId, String ipAddress, Integer timeoutMinutes,
+                             LocalDateTime lastActivityAt, LocalDateTime expiresAt, LocalDateTime cachedAt) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.ipAddress = ipAddress;
+            this.timeoutMinutes = timeoutMinutes != null ? timeoutMinutes : 15;
+            this.lastActivityAt = lastActivityAt;
+            this.expiresAt = expiresAt;
+            this.cachedAt = cachedAt;
+        }
+
+        public boolean isExpired(LocalDateTime now) {
+            return expiresAt == null || now.isAfter(expiresAt);
+        }
+
+        /**
+         * Move the activity window forward, mirroring UserSession.updateActivity()
+         */
+        public void touch(LocalDateTime now) {
+            this.lastActivityAt = now;
+            this.expiresAt = now.plusMinutes(timeoutMinutes);
+        }
+
+        public Long getSessionId() { return sessionId; }
+        public Integer getUserId() { return userId; }
+        public String getIpAddress() { return ipAddress; }
+        public int getTimeoutMinutes() { return timeoutMinutes; }
+        public LocalDateTime getLastActivityAt() { return lastActivityAt; }
+        public LocalDateTime getExpiresAt() { return expiresAt; }
+        public LocalDateTime getCachedAt() { return cachedAt; }
+    }
+}
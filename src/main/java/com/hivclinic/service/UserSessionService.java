@@ -1,15 +1,20 @@
 package com.hivclinic.service;
 
+import com.hivclinic.config.JwtUtils;
 import com.hivclinic.model.User;
 import com.hivclinic.model.UserSession;
 import com.hivclinic.repository.UserSessionRepository;
+import com.hivclinic.repository.UserSessionRepositoryCustom.ExpiredSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -25,20 +30,51 @@ public class UserSessionService {
     // Default session timeout in minutes
     private static final int DEFAULT_SESSION_TIMEOUT_MINUTES = 15;
     
+    // Sessions expired per UPDATE statement during bulk cleanup
+    private static final int EXPIRY_BATCH_SIZE = 1000;
+    
+    // Lease for the daily purge; expiry runs on every instance, which split expired rows between them
+    private static final String SESSION_PURGE_JOB = "sessions.retention-purge";
+    
     @Autowired
     private UserSessionRepository userSessionRepository;
     
     @Autowired
     private LoginActivityService loginActivityService;
     
+    @Autowired
+    private UserSessionCache userSessionCache;
+    
+    @Autowired
+    private SessionActivityCoalescer activityCoalescer;
+    
+    @Autowired
+    private SessionRevocationStore sessionRevocationStore;
+    
+    @Autowired
+    private JwtUtils jwtUtils;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+    
+    // Opt-in: validate tokens carrying a session ID against the revocation set instead of UserSessions
+    @Value("${app.session.stateless-validation.enabled:false}")
+    private boolean statelessValidation;
+    
     /**
      * Create a new session for a user
      */
     @Transactional
     public UserSession createSession(User user, String jwtToken, String ipAddress, String userAgent) {
         try {
-            // Invalidate any existing active sessions for this user
-            invalidateUserSessions(user);
+            // Invalidate any existing active sessions for this user, keeping the new token's version valid
+            Long newVersion = getSessionVersion(jwtToken);
+            invalidateUserSessions(user, newVersion != null ? newVersion : System.currentTimeMillis());
+            
+            int timeoutMinutes = DEFAULT_SESSION_TIMEOUT_MINUTES;
             
             // Create new session
             UserSession session = new UserSession();
@@ -46,18 +82,19 @@ public class UserSessionService {
             session.setSessionToken(jwtToken);
             session.setIpAddress(ipAddress);
             session.setUserAgent(userAgent);
-            session.setSessionTimeoutMinutes(DEFAULT_SESSION_TIMEOUT_MINUTES);
+            session.setSessionTimeoutMinutes(timeoutMinutes);
             session.setIsActive(true);
             
             LocalDateTime now = LocalDateTime.now();
             session.setCreatedAt(now);
             session.setLastActivityAt(now);
-            session.setExpiresAt(now.plusMinutes(DEFAULT_SESSION_TIMEOUT_MINUTES));
+            session.setExpiresAt(now.plusMinutes(timeoutMinutes));
             
             UserSession savedSession = userSessionRepository.save(session);
+            userSessionCache.put(savedSession);
             
             logger.info("Created new session for user: {} with timeout: {} minutes", 
-                user.getUsername(), DEFAULT_SESSION_TIMEOUT_MINUTES);
+                user.getUsername(), timeoutMinutes);
             
             return savedSession;
             
@@ -85,6 +122,16 @@ public class UserSessionService {
     @Transactional
     public boolean updateSessionActivity(String jwtToken) {
         try {
+            // Fast path: extend a cached session in memory, the row is written by the activity coalescer
+            Optional<UserSessionCache.CachedSession> cachedOpt = userSessionCache.get(jwtToken);
+            if (cachedOpt.isPresent()) {
+                UserSessionCache.CachedSession cached = cachedOpt.get();
+                cached.touch(LocalDateTime.now());
+                activityCoalescer.record(cached.getSessionId(), cached.getLastActivityAt(), cached.getExpiresAt());
+                logger.debug("Recorded session activity for user ID: {}", cached.getUserId());
+                return true;
+            }
+            
             Optional<UserSession> sessionOpt = userSessionRepository.findBySessionTokenAndIsActiveTrue(jwtToken);
             
             if (sessionOpt.isEmpty()) {
@@ -93,6 +140,7 @@ public class UserSessionService {
             }
             
             UserSession session = sessionOpt.get();
+            activityCoalescer.applyPending(session);
             
             // Check if session is expired
             if (session.isExpired()) {
@@ -104,6 +152,7 @@ public class UserSessionService {
             // Update activity
             session.updateActivity();
             userSessionRepository.save(session);
+            userSessionCache.put(session);
             
             logger.debug("Updated session activity for user: {}", session.getUser().getUsername());
             return true;
@@ -119,6 +168,10 @@ public class UserSessionService {
      */
     public boolean isSessionValid(String jwtToken) {
         try {
+            if (userSessionCache.get(jwtToken).isPresent()) {
+                return true;
+            }
+            
             Optional<UserSession> sessionOpt = userSessionRepository.findBySessionTokenAndIsActiveTrue(jwtToken);
             
             if (sessionOpt.isEmpty()) {
@@ -126,6 +179,7 @@ public class UserSessionService {
             }
             
             UserSession session = sessionOpt.get();
+            activityCoalescer.applyPending(session);
             
             if (session.isExpired()) {
                 logger.info("Session expired for user: {}", session.getUser().getUsername());
@@ -133,6 +187,7 @@ public class UserSessionService {
                 return false;
             }
             
+            userSessionCache.put(session);
             return true;
             
         } catch (Exception e) {
@@ -141,6 +196,29 @@ public class UserSessionService {
         }
     }
     
+    /**
+     * Whether this token is validated statelessly (mode enabled, shared revocations loaded and token carries a session ID)
+     */
+    public boolean isStatelessSession(String jwtToken) {
+        return statelessValidation && sessionRevocationStore.isReady() && getSessionId(jwtToken) != null;
+    }
+    
+    /**
+     * Check a token against the in-memory revocation set without touching the database
+     */
+    public boolean isSessionRevoked(String jwtToken) {
+        try {
+            return sessionRevocationStore.isRevoked(
+                jwtUtils.getSessionIdFromJwtToken(jwtToken),
+                jwtUtils.getUserIdFromJwtToken(jwtToken),
+                jwtUtils.getSessionVersionFromJwtToken(jwtToken)
+            );
+        } catch (Exception e) {
+            logger.error("Error checking session revocation: {}", e.getMessage());
+            return true;
+        }
+    }
+    
     /**
      * Get session status information
      */
@@ -153,6 +231,7 @@ public class UserSessionService {
             }
             
             UserSession session = sessionOpt.get();
+            activityCoalescer.applyPending(session);
             
             if (session.isExpired()) {
                 invalidateSession(session);
@@ -186,6 +265,7 @@ public class UserSessionService {
             }
             
             UserSession session = sessionOpt.get();
+            activityCoalescer.applyPending(session);
             
             if (session.isExpired()) {
                 logger.info("Cannot extend expired session for user: {}", session.getUser().getUsername());
@@ -196,6 +276,7 @@ public class UserSessionService {
             // Extend session
             session.updateActivity();
             userSessionRepository.save(session);
+            userSessionCache.put(session);
             
             logger.info("Extended session for user: {}, new expiry: {}", 
                 session.getUser().getUsername(), session.getExpiresAt());
@@ -216,13 +297,16 @@ public class UserSessionService {
         try {
             session.setIsActive(false);
             userSessionRepository.save(session);
+            userSessionCache.evict(session.getSessionToken());
+            activityCoalescer.discard(session.getSessionId());
+            publishRevocation(session.getSessionToken());
             
             // Log session timeout in LoginActivity
             loginActivityService.logLoginAttempt(
                 session.getUser().getUsername(), 
                 false, 
                 session.getIpAddress(), 
-                "SESSION_TIMEOUT"
+                LoginActivityService.SESSION_TIMEOUT_MARKER
             );
             
             logger.info("Invalidated session for user: {}", session.getUser().getUsername());
@@ -238,6 +322,9 @@ public class UserSessionService {
     @Transactional
     public boolean invalidateSessionByToken(String jwtToken) {
         try {
+            // Revoke even if the row is already gone, stateless nodes only see the revocation set
+            publishRevocation(jwtToken);
+            
             Optional<UserSession> sessionOpt = userSessionRepository.findBySessionTokenAndIsActiveTrue(jwtToken);
             
             if (sessionOpt.isEmpty()) {
@@ -259,10 +346,21 @@ public class UserSessionService {
      */
     @Transactional
     public void invalidateUserSessions(User user) {
+        invalidateUserSessions(user, System.currentTimeMillis());
+    }
+    
+    /**
+     * Invalidate all sessions for a user and revoke tokens with a session version below the given one
+     */
+    private void invalidateUserSessions(User user, long minValidVersion) {
         try {
+            userSessionCache.evictUser(user.getUserId());
+            sessionRevocationStore.revokeUserSessionsBefore(user.getUserId(), minValidVersion);
+            
             List<UserSession> activeSessions = userSessionRepository.findByUserAndIsActiveTrueOrderByLastActivityAtDesc(user);
             
             for (UserSession session : activeSessions) {
+                activityCoalescer.discard(session.getSessionId());
                 session.setIsActive(false);
                 userSessionRepository.save(session);
             }
@@ -276,6 +374,38 @@ public class UserSessionService {
         }
     }
     
+    /**
+     * Add a token's session ID to the revocation set until the token expires
+     */
+    private void publishRevocation(String jwtToken) {
+        try {
+            String sessionId = getSessionId(jwtToken);
+            if (sessionId != null) {
+                sessionRevocationStore.revokeSession(sessionId,
+                    jwtUtils.getVerifiedClaims(jwtToken).getExpiration().getTime());
+            }
+        } catch (Exception e) {
+            // Expired or malformed tokens cannot be used again, nothing to revoke
+            logger.debug("Skipping revocation for unparseable token: {}", e.getMessage());
+        }
+    }
+    
+    private String getSessionId(String jwtToken) {
+        try {
+            return jwtUtils.getSessionIdFromJwtToken(jwtToken);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    private Long getSessionVersion(String jwtToken) {
+        try {
+            return jwtUtils.getSessionVersionFromJwtToken(jwtToken);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
     /**
      * Get all active sessions for a user
      */
@@ -292,18 +422,13 @@ public class UserSessionService {
      * Cleanup expired sessions - runs every 5 minutes
      */
     @Scheduled(fixedRate = 300000) // 5 minutes
-    @Transactional
     public void cleanupExpiredSessions() {
         try {
-            LocalDateTime now = LocalDateTime.now();
-            List<UserSession> expiredSessions = userSessionRepository.findExpiredSessions(now);
+            SessionCleanupResult result = expireSessionsInBulk();
             
-            for (UserSession session : expiredSessions) {
-                invalidateSession(session);
-            }
-            
-            if (!expiredSessions.isEmpty()) {
-                logger.info("Cleaned up {} expired sessions", expiredSessions.size());
+            if (result.getExpiredSessions() > 0) {
+                logger.info("Cleaned up {} expired sessions in {} batches, {} timeout logs written",
+                    result.getExpiredSessions(), result.getBatches(), result.getTimeoutLogsWritten());
             }
             
         } catch (Exception e) {
@@ -311,12 +436,67 @@ public class UserSessionService {
         }
     }
     
+    /**
+     * Expire sessions with set-based statements: each batch is one UPDATE that deactivates the
+     * sessions plus one batched insert of their SESSION_TIMEOUT login activity rows, in its own transaction
+     */
+    public SessionCleanupResult expireSessionsInBulk() {
+        // Write buffered activity first so recently active sessions are not treated as expired
+        activityCoalescer.flush();
+        
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        int[] logged = {0};
+        int batches = 0;
+        
+        while (true) {
+            List<ExpiredSession> batch = transactionTemplate.execute(status -> {
+                List<ExpiredSession> sessions = userSessionRepository.expireSessions(now, EXPIRY_BATCH_SIZE);
+                logged[0] += loginActivityService.logSessionTimeouts(sessions);
+                return sessions;
+            });
+            
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            
+            batches++;
+            expired += batch.size();
+            for (ExpiredSession session : batch) {
+                userSessionCache.evict(session.sessionToken());
+                activityCoalescer.discard(session.sessionId());
+                // Idle sessions end here, so stateless validation has to learn about them too
+                if (statelessValidation) {
+                    publishRevocation(session.sessionToken());
+                }
+            }
+            
+            if (batch.size() < EXPIRY_BATCH_SIZE) {
+                break;
+            }
+        }
+        
+        userSessionCache.evictExpired();
+        return new SessionCleanupResult(expired, logged[0], batches);
+    }
+    
     /**
      * Cleanup old inactive sessions - runs daily at 2 AM
      */
     @Scheduled(cron = "0 0 2 * * ?")
     @Transactional
     public void cleanupOldSessions() {
+        if (!schedulerLockService.tryAcquire(SESSION_PURGE_JOB, Duration.ofHours(1))) {
+            return;
+        }
+        try {
+            deleteOldSessions();
+        } finally {
+            schedulerLockService.release(SESSION_PURGE_JOB, Duration.ofMinutes(10));
+        }
+    }
+    
+    private void deleteOldSessions() {
         try {
             LocalDateTime cutoffDate = LocalDateTime.now().minusDays(7); // Keep inactive sessions for 7 days
             List<UserSession> oldSessions = userSessionRepository.findInactiveSessionsOlderThan(cutoffDate);
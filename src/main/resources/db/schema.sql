@@ -274,6 +274,50 @@ CREATE TABLE NotificationTemplates (
     CONSTRAINT chk_notification_template_priority CHECK (Priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT'))
 );
 
+-- AppointmentOutbox Table: Side effects of appointment changes, written with the change and dispatched in the background
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='AppointmentOutbox' AND xtype='U')
+CREATE TABLE AppointmentOutbox (
+    OutboxID BIGINT IDENTITY(1,1) PRIMARY KEY,
+    AppointmentID INT NOT NULL,
+    EventType NVARCHAR(50) NOT NULL, -- 'APPOINTMENT_BOOKED'
+    ChangedByUserID INT NULL,
+    ChangeReason NVARCHAR(MAX),
+    OccurredAt DATETIME2 NOT NULL DEFAULT GETDATE(),
+    NextAttemptAt DATETIME2 NOT NULL DEFAULT GETDATE(),
+    Attempts INT NOT NULL DEFAULT 0,
+    ProcessedAt DATETIME2 NULL,
+    FailedAt DATETIME2 NULL, -- set once retries are exhausted; cleared when the event is replayed
+    LastError NVARCHAR(1000) NULL,
+    FOREIGN KEY (AppointmentID) REFERENCES Appointments(AppointmentID) ON DELETE CASCADE
+);
+
+-- SchedulerLocks Table: Time-bounded leases so a scheduled job runs on one instance at a time
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='SchedulerLocks' AND xtype='U')
+CREATE TABLE SchedulerLocks (
+    JobName NVARCHAR(100) PRIMARY KEY,
+    LockedUntil DATETIME2 NOT NULL,
+    LockedAt DATETIME2 NOT NULL,
+    LockedBy NVARCHAR(255) NOT NULL
+);
+
+-- SessionRevocations Table: Revoked sessions shared between instances for stateless session validation
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='SessionRevocations' AND xtype='U')
+CREATE TABLE SessionRevocations (
+    RevocationID BIGINT IDENTITY(1,1) PRIMARY KEY,
+    SessionID NVARCHAR(64) NULL,
+    UserID INT NULL,
+    MinVersion BIGINT NULL,
+    ExpiresAt DATETIME2 NOT NULL,
+    CreatedAt DATETIME2 NOT NULL DEFAULT SYSDATETIME()
+);
+
+-- Add FailedAt to an existing AppointmentOutbox table
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[dbo].[AppointmentOutbox]') AND name = 'FailedAt')
+BEGIN
+    ALTER TABLE AppointmentOutbox
+    ADD FailedAt DATETIME2 NULL;
+END
+
 -- Add columns to existing Notifications table
 IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[dbo].[Notifications]') AND name = 'templateId')
 BEGIN
@@ -308,6 +352,18 @@ BEGIN
     CREATE INDEX idx_notifications_user_type ON Notifications(userId, type);
 END
 
+-- Scheduled notification dispatch seeks unsent rows by due time
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_notifications_due')
+BEGIN
+    CREATE INDEX idx_notifications_due ON Notifications(ScheduledFor) INCLUDE (UserID) WHERE SentAt IS NULL AND ScheduledFor IS NOT NULL;
+END
+
+-- Retention purge deletes sent notifications by age
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_notifications_sent_at')
+BEGIN
+    CREATE INDEX idx_notifications_sent_at ON Notifications(SentAt) WHERE SentAt IS NOT NULL;
+END
+
 IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_notification_templates_type_active')
 BEGIN
     CREATE INDEX idx_notification_templates_type_active ON NotificationTemplates(type, isActive);
@@ -318,6 +374,45 @@ BEGIN
     CREATE INDEX idx_medication_routines_patient_active ON MedicationRoutines(PatientUserID, isActive);
 END
 
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_login_activity_user_success')
+BEGIN
+    CREATE INDEX idx_login_activity_user_success ON LoginActivity(UserID, IsSuccess, AttemptTime);
+END
+
+-- Keyset pagination of the admin login activity feed, newest first
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_login_activity_time_id')
+BEGIN
+    CREATE INDEX idx_login_activity_time_id ON LoginActivity(AttemptTime DESC, LogID DESC) INCLUDE (UserID, IsSuccess, IPAddress);
+END
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_login_activity_user_time_id')
+BEGIN
+    CREATE INDEX idx_login_activity_user_time_id ON LoginActivity(UserID, AttemptTime DESC, LogID DESC);
+END
+
+-- Booking conflict checks look up appointments per patient and per doctor around a time
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_appointments_patient_datetime')
+BEGIN
+    CREATE INDEX idx_appointments_patient_datetime ON Appointments(PatientUserID, AppointmentDateTime);
+END
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_appointments_doctor_datetime')
+BEGIN
+    CREATE INDEX idx_appointments_doctor_datetime ON Appointments(DoctorUserID, AppointmentDateTime);
+END
+
+-- Outbox dispatcher claims unprocessed events that are due
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_appointment_outbox_pending')
+BEGIN
+    CREATE INDEX idx_appointment_outbox_pending ON AppointmentOutbox(NextAttemptAt) INCLUDE (Attempts) WHERE ProcessedAt IS NULL;
+END
+
+-- Each instance polls recent session revocations
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_session_revocations_created')
+BEGIN
+    CREATE INDEX idx_session_revocations_created ON SessionRevocations(CreatedAt);
+END
+
 -- Add Gender column to existing DoctorProfiles table if it doesn't exist
 IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[dbo].[DoctorProfiles]') AND name = 'Gender')
 BEGIN
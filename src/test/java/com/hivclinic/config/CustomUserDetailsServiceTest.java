@@ -0,0 +1,119 @@
+package com.hivclinic.config;
+
+import com.hivclinic.model.Role;
+import com.hivclinic.model.User;
+import com.hivclinic.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CustomUserDetailsService userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userDetailsService, "principalCacheTtlSeconds", 60L);
+        Role role = new Role();
+        role.setRoleName("Doctor");
+        user = new User();
+        user.setUserId(42);
+        user.setUsername("doctor1");
+        user.setPasswordHash("hash");
+        user.setRole(role);
+        user.setIsActive(true);
+    }
+
+    @Test
+    void testLoadCachedUserByUsername_ServesRepeatRequestsFromCache() {
+        when(userRepository.findByUsername("doctor1")).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadCachedUserByUsername("doctor1");
+        UserDetails second = userDetailsService.loadCachedUserByUsername("doctor1");
+
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("doctor1");
+    }
+
+    @Test
+    void testLoadCachedUserByUsername_ReloadsAfterTtl() {
+        ReflectionTestUtils.setField(userDetailsService, "principalCacheTtlSeconds", 0L);
+        when(userRepository.findByUsername("doctor1")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadCachedUserByUsername("doctor1");
+        userDetailsService.loadCachedUserByUsername("doctor1");
+
+        verify(userRepository, times(2)).findByUsername("doctor1");
+    }
+
+    @Test
+    void testEvictCachedUser_OutsideTransactionEvictsImmediately() {
+        when(userRepository.findByUsername("doctor1")).thenReturn(Optional.of(user));
+        userDetailsService.loadCachedUserByUsername("doctor1");
+
+        user.setIsActive(false);
+        userDetailsService.evictCachedUser("doctor1");
+
+        assertFalse(userDetailsService.loadCachedUserByUsername("doctor1").isEnabled());
+        verify(userRepository, times(2)).findByUsername("doctor1");
+    }
+
+    @Test
+    void testEvictCachedUser_EvictsOnlyAfterCommit() {
+        when(userRepository.findByUsername("doctor1")).thenReturn(Optional.of(user));
+        userDetailsService.loadCachedUserByUsername("doctor1");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            user.setIsActive(false);
+            userDetailsService.evictCachedUser("doctor1");
+            assertTrue(userDetailsService.loadCachedUserByUsername("doctor1").isEnabled());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(userDetailsService.loadCachedUserByUsername("doctor1").isEnabled());
+    }
+
+    @Test
+    void testLoadCachedUserByUsername_LoadRacingEvictionDoesNotCacheStaleUser() {
+        User deactivated = new User();
+        deactivated.setUserId(42);
+        deactivated.setUsername("doctor1");
+        deactivated.setPasswordHash("hash");
+        deactivated.setRole(user.getRole());
+        deactivated.setIsActive(false);
+        when(userRepository.findByUsername("doctor1"))
+            .thenAnswer(invocation -> {
+                // The load saw the row before the deactivation committed
+                userDetailsService.evictCachedUser("doctor1");
+                return Optional.of(user);
+            })
+            .thenReturn(Optional.of(deactivated));
+
+        assertTrue(userDetailsService.loadCachedUserByUsername("doctor1").isEnabled());
+
+        assertFalse(userDetailsService.loadCachedUserByUsername("doctor1").isEnabled());
+    }
+}
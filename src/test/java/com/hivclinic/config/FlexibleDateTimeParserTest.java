@@ -0,0 +1,91 @@
+package com.hivclinic.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlexibleDateTimeParserTest {
+
+    // Formatter chain the parser replaced; the first seven were used by AppointmentService, all by the deserializer
+    private static final DateTimeFormatter[] LEGACY_FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS"),
+        DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyy/MM/dd'T'HH:mm:ss"),
+        DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss"),
+        DateTimeFormatter.ofPattern("MM/dd/yyyy'T'HH:mm:ss"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy'T'HH:mm:ss")
+    };
+
+    private static final String[] INPUTS = {
+        "2024-06-01T09:30:00", "2024-06-01 09:30:00", "2024-06-01T09:30", "2024-06-01 09:30",
+        "2024-06-01T09:30:00.123", "2024-06-01T09:30:00.123456", "2024-06-01T09:30:00.1",
+        "2024-06-01T09:30:00.123456789", "2024-06-01T09:30:00.", "2024-06-01T09:30:00Z",
+        "2024-06-01T09:30:00+07:00", "2024-06-01T09:30:00-0500", "2024-06-01T09:30+07:00", " 2024-06-01T09:30:00 ",
+        "2024-02-30T10:00:00", "2023-02-29T10:00:00", "2024-06-01T24:00:00",
+        "2024-13-01T10:00:00", "2024-00-10T10:00:00", "2024-06-00T10:00:00", "2024-06-32T10:00:00",
+        "2024-06-01T09:60:00", "2024-06-01T9:30:00", "2024-06-01X09:30:00", "2024-06-01T09:30:00.1234567890",
+        "2024-06-01", "garbage", "",
+        "2024/06/01 09:30:00", "2024/06/01T09:30:00", "06/01/2024 09:30:00", "13/06/2024 09:30:00",
+        "06/13/2024T09:30:00", "2024-06-01 09:30:00 UTC", "2024-06-01T09:30:00 GMT"
+    };
+
+    @Test
+    void testParse_MatchesLegacyServiceFormatters() {
+        for (String input : INPUTS) {
+            assertEquals(legacyParse(input, 7, false), FlexibleDateTimeParser.parse(input), input);
+        }
+    }
+
+    @Test
+    void testParse_MatchesLegacyDeserializerFormatters() {
+        for (String input : INPUTS) {
+            assertEquals(legacyParse(input, LEGACY_FORMATTERS.length, true),
+                    FlexibleDateTimeParser.parse(input, true), input);
+        }
+    }
+
+    @Test
+    void testParse_AcceptsFractionAfterSpaceSeparator() {
+        // The only shape accepted beyond the legacy formatters
+        assertEquals(LocalDateTime.of(2024, 6, 1, 9, 30, 0, 500_000_000),
+                FlexibleDateTimeParser.parse("2024-06-01 09:30:00.5"));
+    }
+
+    @Test
+    void testIsIsoSecondsShape() {
+        assertTrue(FlexibleDateTimeParser.isIsoSecondsShape("2024-06-01T09:30:00"));
+        assertFalse(FlexibleDateTimeParser.isIsoSecondsShape("2024-06-01 09:30:00"));
+        assertFalse(FlexibleDateTimeParser.isIsoSecondsShape("2024-06-01T09:30"));
+        assertFalse(FlexibleDateTimeParser.isIsoSecondsShape(null));
+    }
+
+    private static LocalDateTime legacyParse(String input, int formatterCount, boolean stripZoneNames) {
+        String clean = input.trim();
+        if (clean.endsWith("Z")) {
+            clean = clean.substring(0, clean.length() - 1);
+        }
+        clean = clean.replaceAll("[+-]\\d{2}:\\d{2}$", "").replaceAll("[+-]\\d{4}$", "");
+        if (stripZoneNames) {
+            clean = clean.replace(" UTC", "").replace(" GMT", "");
+        }
+        for (int i = 0; i < formatterCount; i++) {
+            try {
+                return LocalDateTime.parse(clean, LEGACY_FORMATTERS[i]);
+            } catch (DateTimeParseException e) {
+                // try the next formatter
+            }
+        }
+        return null;
+    }
+}
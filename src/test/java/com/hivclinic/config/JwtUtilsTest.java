@@ -0,0 +1,59 @@
+package com.hivclinic.config;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "mySecretKey123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "claimsCacheMaxEntries", 100);
+        jwtUtils.init();
+    }
+
+    @Test
+    void testGenerateAndReadClaims() {
+        String token = jwtUtils.generateJwtToken("doctor1", 42, "Doctor");
+
+        assertTrue(jwtUtils.validateJwtToken(token));
+        assertEquals("doctor1", jwtUtils.getUsernameFromJwtToken(token));
+        assertEquals(42, jwtUtils.getUserIdFromJwtToken(token));
+        assertEquals("Doctor", jwtUtils.getRoleFromJwtToken(token));
+    }
+
+    @Test
+    void testGetVerifiedClaims_ReusesCachedClaims() {
+        String token = jwtUtils.generateJwtToken("patient1", 7, "Patient");
+
+        Claims first = jwtUtils.getVerifiedClaims(token);
+        Claims second = jwtUtils.getVerifiedClaims(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testValidateJwtToken_RejectsTamperedToken() {
+        String token = jwtUtils.generateJwtToken("patient1", 7, "Patient");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+        assertFalse(jwtUtils.validateJwtToken(""));
+        assertFalse(jwtUtils.validateJwtToken("not-a-jwt"));
+    }
+
+    @Test
+    void testDigestToken_IsStable() {
+        assertEquals(JwtUtils.digestToken("abc"), JwtUtils.digestToken("abc"));
+        assertNotEquals(JwtUtils.digestToken("abc"), JwtUtils.digestToken("abd"));
+        assertEquals(64, JwtUtils.digestToken("abc").length());
+    }
+}
@@ -0,0 +1,134 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.Appointment;
+import com.hivclinic.model.User;
+import com.hivclinic.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentIntervalIndexTest {
+
+    private static final Integer DOCTOR_ID = 20;
+    private static final Integer PATIENT_ID = 10;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private AppointmentIntervalIndex index;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void testHasDoctorConflict_LoadsScheduleOnceAndChecksWindow() {
+        when(appointmentRepository.findDoctorScheduleFrom(eq(DOCTOR_ID), any()))
+                .thenReturn(rows(new Object[]{1, base}));
+
+        assertTrue(index.hasDoctorConflict(DOCTOR_ID, base.plusMinutes(30), null));
+        assertTrue(index.hasDoctorConflict(DOCTOR_ID, base.minusMinutes(15), null));
+        assertFalse(index.hasDoctorConflict(DOCTOR_ID, base.plusMinutes(31), null));
+        assertFalse(index.hasDoctorConflict(DOCTOR_ID, base, 1));
+
+        verify(appointmentRepository, times(1)).findDoctorScheduleFrom(eq(DOCTOR_ID), any());
+    }
+
+    @Test
+    void testInvalidate_ReloadsScheduleOnNextLookup() {
+        when(appointmentRepository.findDoctorScheduleFrom(eq(DOCTOR_ID), any()))
+                .thenReturn(rows(new Object[]{1, base}), rows());
+
+        assertTrue(index.hasDoctorConflict(DOCTOR_ID, base, null));
+        index.invalidate(DOCTOR_ID, null);
+
+        assertFalse(index.hasDoctorConflict(DOCTOR_ID, base, null));
+        verify(appointmentRepository, times(2)).findDoctorScheduleFrom(eq(DOCTOR_ID), any());
+    }
+
+    @Test
+    void testAddAndRemove_UpdateLoadedSchedules() {
+        when(appointmentRepository.findPatientScheduleFrom(eq(PATIENT_ID), any())).thenReturn(rows());
+        assertFalse(index.hasPatientConflict(PATIENT_ID, base, null));
+
+        Appointment appointment = appointment(5, base);
+        index.add(appointment);
+        assertTrue(index.hasPatientConflict(PATIENT_ID, base.plusMinutes(10), null));
+
+        appointment.setStatus("Cancelled");
+        index.add(appointment);
+        assertFalse(index.hasPatientConflict(PATIENT_ID, base.plusMinutes(10), null));
+    }
+
+    @Test
+    void testVerify_ReportsDifferenceWithoutChangingIndex() {
+        when(appointmentRepository.findDoctorScheduleFrom(eq(DOCTOR_ID), any()))
+                .thenReturn(rows(new Object[]{1, base}))
+                .thenReturn(rows(new Object[]{1, base}, new Object[]{2, base.plusHours(2)}));
+        assertFalse(index.hasDoctorConflict(DOCTOR_ID, base.plusHours(2), null));
+
+        Map<String, Object> report = index.verify();
+
+        assertEquals(false, report.get("consistent"));
+        assertEquals(List.of(DOCTOR_ID), report.get("inconsistentDoctors"));
+        assertFalse(index.hasDoctorConflict(DOCTOR_ID, base.plusHours(2), null));
+    }
+
+    @Test
+    void testRepair_ReloadsScheduleThatDiffersFromDatabase() {
+        when(appointmentRepository.findDoctorScheduleFrom(eq(DOCTOR_ID), any()))
+                .thenReturn(rows(new Object[]{1, base}))
+                .thenReturn(rows(new Object[]{1, base}, new Object[]{2, base.plusHours(2)}));
+        assertFalse(index.hasDoctorConflict(DOCTOR_ID, base.plusHours(2), null));
+
+        Map<String, Object> report = index.repair();
+
+        assertEquals(false, report.get("consistent"));
+        assertEquals(List.of(DOCTOR_ID), report.get("inconsistentDoctors"));
+        assertTrue(index.hasDoctorConflict(DOCTOR_ID, base.plusHours(2), null));
+    }
+
+    @Test
+    void testInvalidate_LeavesUnloadedOwnersUnread() {
+        index.invalidate(DOCTOR_ID, PATIENT_ID);
+
+        assertEquals(0, index.getLoadedOwnerCount());
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    private Appointment appointment(Integer id, LocalDateTime dateTime) {
+        User doctor = new User();
+        doctor.setUserId(DOCTOR_ID);
+        User patient = new User();
+        patient.setUserId(PATIENT_ID);
+
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(id);
+        appointment.setDoctorUser(doctor);
+        appointment.setPatientUser(patient);
+        appointment.setAppointmentDateTime(dateTime);
+        appointment.setStatus("Scheduled");
+        return appointment;
+    }
+
+    private List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
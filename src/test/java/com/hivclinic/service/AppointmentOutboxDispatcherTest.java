@@ -0,0 +1,156 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.Appointment;
+import com.hivclinic.model.AppointmentOutboxEvent;
+import com.hivclinic.model.Notification;
+import com.hivclinic.model.User;
+import com.hivclinic.repository.AppointmentOutboxRepository;
+import com.hivclinic.repository.AppointmentOutboxRepositoryCustom.ClaimedOutboxEvent;
+import com.hivclinic.repository.AppointmentRepository;
+import com.hivclinic.repository.AppointmentStatusHistoryRepository;
+import com.hivclinic.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentOutboxDispatcherTest {
+
+    private static final LocalDateTime BOOKED_AT = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    @Mock
+    private AppointmentOutboxRepository appointmentOutboxRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationSchedulingService notificationSchedulingService;
+
+    @Mock
+    private NotificationTimingWheel notificationTimingWheel;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AppointmentOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void testDispatch_WritesHistoryAndRemindersForWholeBatch() {
+        when(appointmentOutboxRepository.claimDueEvents(any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(event(100L, 1), event(101L, 2)));
+        Appointment cancelled = appointment(2);
+        cancelled.setStatus("Cancelled");
+        when(appointmentRepository.findAllWithUsersByIdIn(Set.of(1, 2)))
+                .thenReturn(List.of(appointment(1), cancelled));
+        when(notificationSchedulingService.buildAppointmentReminders(argThat(a -> a.getAppointmentId() == 1)))
+                .thenReturn(List.of(new Notification(), new Notification()));
+
+        int processed = dispatcher.dispatch();
+
+        assertEquals(2, processed);
+        verify(appointmentStatusHistoryRepository).batchInsert(argThat(history -> history.size() == 2
+                && BOOKED_AT.equals(history.get(0).getChangedAt())
+                && "Scheduled".equals(history.get(0).getNewStatus())));
+        verify(notificationRepository).batchInsert(argThat(reminders -> reminders.size() == 2));
+        verify(appointmentOutboxRepository).markProcessed(eq(List.of(100L, 101L)), any());
+        verify(notificationSchedulingService, never()).scheduleAppointmentReminders(any());
+    }
+
+    @Test
+    void testDispatch_FailedEventIsRetriedLaterWithoutBlockingOthers() {
+        when(appointmentOutboxRepository.claimDueEvents(any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(event(100L, 1), event(101L, 2)));
+        when(appointmentRepository.findAllWithUsersByIdIn(Set.of(1, 2))).thenThrow(new RuntimeException("deadlock"));
+        when(appointmentRepository.findAllWithUsersByIdIn(Set.of(1))).thenReturn(List.of(appointment(1)));
+        when(appointmentRepository.findAllWithUsersByIdIn(Set.of(2))).thenThrow(new RuntimeException("bad row"));
+
+        int processed = dispatcher.dispatch();
+
+        assertEquals(1, processed);
+        verify(appointmentOutboxRepository).markProcessed(eq(List.of(100L)), any());
+        verify(appointmentOutboxRepository).markFailed(eq(101L), eq("bad row"), any());
+    }
+
+    @Test
+    void testDispatch_ExhaustedEventIsMarkedDead() {
+        ClaimedOutboxEvent lastAttempt = new ClaimedOutboxEvent(101L, 2, AppointmentOutboxEvent.APPOINTMENT_BOOKED,
+                10, "Appointment booked", BOOKED_AT, 5);
+        when(appointmentOutboxRepository.claimDueEvents(any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(lastAttempt));
+        when(appointmentRepository.findAllWithUsersByIdIn(Set.of(2))).thenThrow(new RuntimeException("bad row"));
+
+        int processed = dispatcher.dispatch();
+
+        assertEquals(0, processed);
+        verify(appointmentOutboxRepository).markExhaustedDead(eq(5), any());
+        verify(appointmentOutboxRepository).markDead(eq(101L), eq("bad row"), any());
+        verify(appointmentOutboxRepository, never()).markFailed(any(), any(), any());
+    }
+
+    @Test
+    void testGetStatusAndReplay_CountAndRequeueDeadEvents() {
+        when(appointmentOutboxRepository.countByProcessedAtIsNull()).thenReturn(7L);
+        when(appointmentOutboxRepository.countByProcessedAtIsNullAndFailedAtIsNotNull()).thenReturn(2L);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(appointmentOutboxRepository.replayDead(any())).thenReturn(2);
+
+        Map<String, Object> status = dispatcher.getStatus();
+
+        assertEquals(5L, status.get("pending"));
+        assertEquals(2L, status.get("dead"));
+        assertEquals(2, dispatcher.replayDeadEvents());
+    }
+
+    private ClaimedOutboxEvent event(Long outboxId, Integer appointmentId) {
+        return new ClaimedOutboxEvent(outboxId, appointmentId, AppointmentOutboxEvent.APPOINTMENT_BOOKED,
+                10, "Appointment booked", BOOKED_AT, 1);
+    }
+
+    private Appointment appointment(Integer appointmentId) {
+        User patient = new User();
+        patient.setUserId(10);
+        User doctor = new User();
+        doctor.setUserId(20);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(appointmentId);
+        appointment.setPatientUser(patient);
+        appointment.setDoctorUser(doctor);
+        appointment.setAppointmentDateTime(BOOKED_AT.plusDays(2));
+        appointment.setStatus("Scheduled");
+        return appointment;
+    }
+}
@@ -0,0 +1,295 @@
+package com.hivclinic.service;
+
+import com.hivclinic.dto.request.AppointmentBookingRequest;
+import com.hivclinic.dto.request.BulkAppointmentStatusRequest;
+import com.hivclinic.dto.response.AppointmentListResponse;
+import com.hivclinic.dto.response.AppointmentStatusUpdateResult;
+import com.hivclinic.dto.response.AppointmentSummaryResponse;
+import com.hivclinic.dto.response.MessageResponse;
+import com.hivclinic.exception.SlotAlreadyBookedException;
+import com.hivclinic.model.Appointment;
+import com.hivclinic.model.AppointmentOutboxEvent;
+import com.hivclinic.model.DoctorAvailabilitySlot;
+import com.hivclinic.model.User;
+import com.hivclinic.repository.AppointmentOutboxRepository;
+import com.hivclinic.repository.AppointmentRepository;
+import com.hivclinic.repository.AppointmentRepositoryCustom.BookingConflictCheck;
+import com.hivclinic.repository.AppointmentStatusHistoryRepository;
+import com.hivclinic.repository.DoctorAvailabilitySlotRepository;
+import com.hivclinic.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentServiceTest {
+
+    private static final Integer PATIENT_ID = 10;
+    private static final Integer DOCTOR_ID = 20;
+    private static final Integer SLOT_ID = 30;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DoctorAvailabilitySlotRepository availabilitySlotRepository;
+
+    @Mock
+    private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
+
+    @Mock
+    private PatientPrivacyService patientPrivacyService;
+
+    @Mock
+    private AppointmentOutboxRepository appointmentOutboxRepository;
+
+    @Mock
+    private AppointmentIntervalIndex appointmentIntervalIndex;
+
+    @InjectMocks
+    private AppointmentService appointmentService;
+
+    private AppointmentBookingRequest request;
+
+    @BeforeEach
+    void setUp() {
+        String dateTime = LocalDateTime.now().plusDays(2).withNano(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
+        request = new AppointmentBookingRequest(DOCTOR_ID, SLOT_ID, dateTime, 30);
+    }
+
+    @Test
+    void testBookAppointment_Success() {
+        when(appointmentRepository.checkBookingConflicts(eq(PATIENT_ID), eq(DOCTOR_ID), eq(SLOT_ID), any(), any()))
+                .thenReturn(new BookingConflictCheck("Patient", "Doctor", false, false, DOCTOR_ID, false));
+        when(availabilitySlotRepository.reserveSlot(eq(SLOT_ID), eq(DOCTOR_ID), any())).thenReturn(1);
+        when(userRepository.getReferenceById(anyInt())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setUserId(invocation.getArgument(0));
+            return user;
+        });
+        when(availabilitySlotRepository.getReferenceById(SLOT_ID)).thenReturn(new DoctorAvailabilitySlot());
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MessageResponse response = appointmentService.bookAppointment(request, PATIENT_ID);
+
+        assertTrue(response.isSuccess());
+        verify(appointmentIntervalIndex).add(any(Appointment.class));
+        verify(appointmentOutboxRepository).save(argThat(event ->
+                AppointmentOutboxEvent.APPOINTMENT_BOOKED.equals(event.getEventType())
+                        && PATIENT_ID.equals(event.getChangedByUserId())));
+        verify(appointmentStatusHistoryRepository, never()).save(any());
+        verify(appointmentRepository).save(argThat(appointment ->
+                appointment.getPatientUser().getUserId().equals(PATIENT_ID)
+                        && appointment.getDoctorUser().getUserId().equals(DOCTOR_ID)
+                        && "Scheduled".equals(appointment.getStatus())));
+        verify(userRepository, never()).findById(any());
+        // Booking relies on the database check alone and never loads schedules into the index
+        verify(appointmentIntervalIndex, never()).hasPatientConflict(any(), any(), any());
+        verify(appointmentIntervalIndex, never()).hasDoctorConflict(any(), any(), any());
+        verify(appointmentIntervalIndex, never()).invalidate(any(), any());
+    }
+
+    @Test
+    void testBookAppointment_SlotAlreadyBooked_ThrowsConflict() {
+        when(appointmentRepository.checkBookingConflicts(eq(PATIENT_ID), eq(DOCTOR_ID), eq(SLOT_ID), any(), any()))
+                .thenReturn(new BookingConflictCheck("Patient", "Doctor", false, false, DOCTOR_ID, true));
+
+        assertThrows(SlotAlreadyBookedException.class, () -> appointmentService.bookAppointment(request, PATIENT_ID));
+        verify(availabilitySlotRepository, never()).reserveSlot(any(), any(), any());
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void testBookAppointment_LosesReservationRace_ThrowsConflict() {
+        when(appointmentRepository.checkBookingConflicts(eq(PATIENT_ID), eq(DOCTOR_ID), eq(SLOT_ID), any(), any()))
+                .thenReturn(new BookingConflictCheck("Patient", "Doctor", false, false, DOCTOR_ID, false));
+        when(availabilitySlotRepository.reserveSlot(eq(SLOT_ID), eq(DOCTOR_ID), any())).thenReturn(0);
+
+        assertThrows(SlotAlreadyBookedException.class, () -> appointmentService.bookAppointment(request, PATIENT_ID));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void testBookAppointment_DoctorConflict_ReturnsError() {
+        when(appointmentRepository.checkBookingConflicts(eq(PATIENT_ID), eq(DOCTOR_ID), eq(SLOT_ID), any(), any()))
+                .thenReturn(new BookingConflictCheck("Patient", "Doctor", false, true, DOCTOR_ID, false));
+
+        MessageResponse response = appointmentService.bookAppointment(request, PATIENT_ID);
+
+        assertFalse(response.isSuccess());
+        assertEquals("Doctor is not available at this time", response.getMessage());
+        verify(availabilitySlotRepository, never()).reserveSlot(any(), any(), any());
+    }
+
+    @Test
+    void testUpdateAppointmentStatus_ConfirmedRecheckConflict_ReturnsWarning() {
+        Appointment appointment = appointmentWithUsers(1);
+        String recheckTime = LocalDateTime.now().plusDays(7).withNano(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
+        when(appointmentRepository.findById(1)).thenReturn(Optional.of(appointment));
+        when(appointmentIntervalIndex.hasDoctorConflict(eq(DOCTOR_ID), any(), eq(1))).thenReturn(true);
+        when(appointmentRepository.existsConflictingAppointment(eq(DOCTOR_ID), eq(PATIENT_ID), eq(1), any(), any()))
+                .thenReturn(true);
+
+        MessageResponse response = appointmentService.updateAppointmentStatus(
+                1, DOCTOR_ID, "Completed", null, true, recheckTime, null);
+
+        assertTrue(response.isSuccess());
+        assertTrue(response.getMessage().contains("recheck appointment was not scheduled"));
+        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+    }
+
+    @Test
+    void testUpdateAppointmentStatus_UnconfirmedRecheckConflict_SchedulesRecheck() {
+        Appointment appointment = appointmentWithUsers(1);
+        String recheckTime = LocalDateTime.now().plusDays(7).withNano(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
+        when(appointmentRepository.findById(1)).thenReturn(Optional.of(appointment));
+        when(appointmentIntervalIndex.hasDoctorConflict(eq(DOCTOR_ID), any(), eq(1))).thenReturn(true);
+        when(appointmentRepository.existsConflictingAppointment(eq(DOCTOR_ID), eq(PATIENT_ID), eq(1), any(), any()))
+                .thenReturn(false);
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MessageResponse response = appointmentService.updateAppointmentStatus(
+                1, DOCTOR_ID, "Completed", null, true, recheckTime, null);
+
+        assertEquals("Appointment status updated successfully!", response.getMessage());
+        verify(appointmentIntervalIndex).invalidate(DOCTOR_ID, PATIENT_ID);
+        verify(appointmentRepository, times(2)).save(any(Appointment.class));
+    }
+
+    @Test
+    void testBookAppointment_SlotOfAnotherDoctor_ReturnsError() {
+        when(appointmentRepository.checkBookingConflicts(eq(PATIENT_ID), eq(DOCTOR_ID), eq(SLOT_ID), any(), any()))
+                .thenReturn(new BookingConflictCheck("Patient", "Doctor", false, false, 99, false));
+
+        MessageResponse response = appointmentService.bookAppointment(request, PATIENT_ID);
+
+        assertFalse(response.isSuccess());
+        assertEquals("Availability slot does not belong to the selected doctor", response.getMessage());
+    }
+
+    @Test
+    void testBulkUpdateAppointmentStatus_ReturnsResultPerItem() {
+        LocalDateTime time = LocalDateTime.of(2024, 6, 1, 9, 0);
+        when(appointmentRepository.findStatusRowsByIdIn(Set.of(1, 2, 3))).thenReturn(List.of(
+                new Object[]{1, DOCTOR_ID, PATIENT_ID, "Scheduled", time},
+                new Object[]{2, 99, PATIENT_ID, "Scheduled", time}));
+        when(appointmentRepository.batchUpdateStatus(argThat(updates -> updates.size() == 1)))
+                .thenReturn(new int[]{1});
+
+        Map<String, Object> response = appointmentService.bulkUpdateAppointmentStatus(DOCTOR_ID, List.of(
+                new BulkAppointmentStatusRequest.Item(1, "Completed", "Seen"),
+                new BulkAppointmentStatusRequest.Item(2, "Completed", null),
+                new BulkAppointmentStatusRequest.Item(3, "Completed", null),
+                new BulkAppointmentStatusRequest.Item(1, "No-Show", null)));
+
+        assertEquals(true, response.get("success"));
+        assertEquals(1, response.get("updated"));
+        assertEquals(3, response.get("failed"));
+        List<?> results = (List<?>) response.get("results");
+        assertTrue(((AppointmentStatusUpdateResult) results.get(0)).isSuccess());
+        assertEquals("You don't have permission to update this appointment",
+                ((AppointmentStatusUpdateResult) results.get(1)).getMessage());
+        assertEquals("Appointment not found", ((AppointmentStatusUpdateResult) results.get(2)).getMessage());
+        assertEquals("Appointment is listed more than once", ((AppointmentStatusUpdateResult) results.get(3)).getMessage());
+        verify(appointmentStatusHistoryRepository).batchInsert(argThat(history -> history.size() == 1
+                && "Scheduled".equals(history.get(0).getOldStatus())
+                && "Completed".equals(history.get(0).getNewStatus())));
+        verify(appointmentRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetPatientAppointments_UsesListProjectionAndMasksPrivatePatients() {
+        when(appointmentRepository.findPatientAppointmentList(PATIENT_ID, null)).thenReturn(List.of(
+                listItem(2, "Infectious Disease"), listItem(1, "Infectious Disease")));
+        when(patientPrivacyService.getPrivacySettings(Set.of(PATIENT_ID))).thenReturn(Map.of(PATIENT_ID, true));
+
+        List<AppointmentListResponse> appointments = appointmentService.getPatientAppointments(PATIENT_ID);
+
+        assertEquals(2, appointments.size());
+        assertEquals("Minh", appointments.get(1).getDoctorUser().getFirstName());
+        assertEquals("Infectious Disease", appointments.get(1).getDoctorUser().getSpecialty());
+        assertEquals("Anonymous", appointments.get(0).getPatientUser().getUsername());
+        assertNull(appointments.get(0).getPatientUser().getFirstName());
+        verify(patientPrivacyService, times(1)).getPrivacySettings(anyCollection());
+        verify(appointmentRepository, never()).findByPatientUser(any());
+    }
+
+    @Test
+    void testGetDoctorAppointmentPage_ReturnsCursorThatResumesAfterLastRow() {
+        LocalDateTime time = LocalDateTime.of(2024, 6, 1, 9, 0);
+        List<AppointmentSummaryResponse> rows = new ArrayList<>(List.of(
+                summary(3, time.plusHours(2)), summary(2, time.plusHours(1)), summary(1, time)));
+        when(appointmentRepository.findDoctorAppointmentSummaries(DOCTOR_ID, null, null, "Scheduled", null, null, 3))
+                .thenReturn(rows);
+        when(patientPrivacyService.getPrivacySettings(anyCollection())).thenReturn(Map.of(PATIENT_ID, true));
+
+        Map<String, Object> page = appointmentService.getDoctorAppointmentPage(DOCTOR_ID, null, null, "Scheduled", 2, null);
+
+        List<?> content = (List<?>) page.get("content");
+        assertEquals(2, content.size());
+        assertEquals(true, page.get("hasMore"));
+        assertEquals("Anonymous", ((AppointmentSummaryResponse) content.get(0)).getPatientUsername());
+
+        when(appointmentRepository.findDoctorAppointmentSummaries(DOCTOR_ID, null, null, "Scheduled", time.plusHours(1), 2, 3))
+                .thenReturn(new ArrayList<>(List.of(summary(1, time))));
+
+        Map<String, Object> next = appointmentService.getDoctorAppointmentPage(
+                DOCTOR_ID, null, null, "Scheduled", 2, (String) page.get("nextCursor"));
+
+        assertEquals(1, ((List<?>) next.get("content")).size());
+        assertEquals(false, next.get("hasMore"));
+    }
+
+    @Test
+    void testGetDoctorAppointmentPage_RejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> appointmentService.getDoctorAppointmentPage(DOCTOR_ID, null, null, null, 50, "not-a-cursor"));
+    }
+
+    private AppointmentSummaryResponse summary(Integer appointmentId, LocalDateTime dateTime) {
+        return new AppointmentSummaryResponse(appointmentId, dateTime, 30, "Scheduled", null, PATIENT_ID, "patient1", null);
+    }
+
+    private AppointmentListResponse listItem(Integer appointmentId, String specialty) {
+        return new AppointmentListResponse(appointmentId, LocalDateTime.of(2024, 6, 1, 9, 0), 30, "Scheduled",
+                null, null, null, null,
+                PATIENT_ID, "patient1", "patient1@example.com", "Lan", "Nguyen",
+                DOCTOR_ID, "doctor1", "doctor1@example.com", "Minh", "Tran", specialty,
+                null, null, null, null);
+    }
+
+    private Appointment appointmentWithUsers(Integer appointmentId) {
+        User patient = new User();
+        patient.setUserId(PATIENT_ID);
+        User doctor = new User();
+        doctor.setUserId(DOCTOR_ID);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(appointmentId);
+        appointment.setPatientUser(patient);
+        appointment.setDoctorUser(doctor);
+        appointment.setAppointmentDateTime(LocalDateTime.now().plusDays(1));
+        appointment.setStatus("Scheduled");
+        return appointment;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.User;
+import com.hivclinic.repository.LoginActivityRepository;
+import com.hivclinic.repository.LoginActivityRepositoryCustom.LoginActivityRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginActivityServiceTest {
+
+    @Mock
+    private LoginActivityRepository loginActivityRepository;
+
+    @Mock
+    private LoginAuditWriter loginAuditWriter;
+
+    @Mock
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @InjectMocks
+    private LoginActivityService loginActivityService;
+
+    @Test
+    void testGetLoginStats_UsesAggregateRow() {
+        User user = new User();
+        user.setUsername("patient1");
+        LocalDateTime lastLogin = LocalDateTime.of(2024, 5, 1, 9, 30);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{10L, 8L, lastLogin});
+        when(loginActivityRepository.getLoginStatsForUser(user)).thenReturn(rows);
+
+        Map<String, Object> stats = loginActivityService.getLoginStats(user);
+
+        assertEquals(10L, stats.get("totalAttempts"));
+        assertEquals(8L, stats.get("successfulLogins"));
+        assertEquals(2L, stats.get("failedAttempts"));
+        assertEquals(80.0, stats.get("successRate"));
+        assertEquals(lastLogin, stats.get("lastLoginTime"));
+        verify(loginActivityRepository, never()).findByUserOrderByAttemptTimeDesc(any());
+    }
+
+    @Test
+    void testGetLoginActivityPage_ReturnsCursorWhenMoreRows() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 9, 0);
+        List<LoginActivityRow> rows = List.of(
+                row(30L, time.plusMinutes(2)),
+                row(20L, time.plusMinutes(1)),
+                row(10L, time));
+        when(loginActivityRepository.findPageBefore(null, null, null, null, null, 3)).thenReturn(rows);
+
+        Map<String, Object> page = loginActivityService.getLoginActivityPage(null, null, null, null, 2);
+
+        assertEquals(2, ((List<?>) page.get("content")).size());
+        assertEquals(true, page.get("hasMore"));
+        assertNotNull(page.get("nextCursor"));
+    }
+
+    @Test
+    void testGetLoginActivityPage_CursorKeepsSubSecondPrecision() {
+        // Two attempts inside the same second: the cursor must resume between them, not after the whole second
+        LocalDateTime second = LocalDateTime.of(2024, 5, 1, 9, 0, 5);
+        LocalDateTime later = second.plusNanos(750_123_400);
+        LocalDateTime earlier = second.plusNanos(250_000_000);
+        when(loginActivityRepository.findPageBefore(null, null, null, null, null, 2))
+                .thenReturn(List.of(row(20L, later), row(10L, earlier)));
+        when(loginActivityRepository.findPageBefore(later, 20L, null, null, null, 2))
+                .thenReturn(List.of(row(10L, earlier)));
+
+        Map<String, Object> first = loginActivityService.getLoginActivityPage(null, null, null, null, 1);
+        Map<String, Object> next = loginActivityService.getLoginActivityPage(
+                (String) first.get("nextCursor"), null, null, null, 1);
+
+        assertEquals(List.of(row(10L, earlier)), next.get("content"));
+        assertEquals(false, next.get("hasMore"));
+    }
+
+    @Test
+    void testGetLoginActivityPage_LastPageHasNoCursor() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 9, 0);
+        when(loginActivityRepository.findPageBefore(null, null, 5, "10.0.0.1", false, 51))
+                .thenReturn(List.of(row(10L, time)));
+
+        Map<String, Object> page = loginActivityService.getLoginActivityPage(null, 5, "10.0.0.1", false, 50);
+
+        assertEquals(1, ((List<?>) page.get("content")).size());
+        assertEquals(false, page.get("hasMore"));
+        assertFalse(page.containsKey("nextCursor"));
+    }
+
+    @Test
+    void testGetLoginActivityPage_RejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> loginActivityService.getLoginActivityPage("not-a-cursor", null, null, null, 50));
+    }
+
+    @Test
+    void testLogThrottledAttempt_AuditsWithoutCountingFailure() {
+        loginActivityService.logThrottledAttempt("patient1", "10.0.0.1", "JUnit");
+
+        verify(loginAuditWriter).submit("patient1", false, "10.0.0.1", "JUnit");
+        verify(loginAttemptTracker, never()).recordAttempt(any(), any(), anyBoolean());
+    }
+
+    private LoginActivityRow row(Long logId, LocalDateTime attemptTime) {
+        return new LoginActivityRow(logId, 5, "patient1", attemptTime, true, "10.0.0.1", "JUnit");
+    }
+}
@@ -0,0 +1,116 @@
+package com.hivclinic.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptTrackerTest {
+
+    private LoginAttemptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new LoginAttemptTracker();
+    }
+
+    @Test
+    void testRecordAttempt_CountsFailuresPerUsernameAndIp() {
+        tracker.recordAttempt("patient1", "10.0.0.1", false);
+        tracker.recordAttempt("patient1", "10.0.0.2", false);
+        tracker.recordAttempt("doctor1", "10.0.0.1", false);
+
+        assertEquals(2, tracker.getUsernameFailures("patient1"));
+        assertEquals(1, tracker.getUsernameFailures("doctor1"));
+        assertEquals(2, tracker.getIpFailures("10.0.0.1"));
+        assertEquals(0, tracker.getIpFailures("10.0.0.3"));
+    }
+
+    @Test
+    void testIsThrottled_AfterMaxUsernameFailures() {
+        for (int i = 0; i < 4; i++) {
+            tracker.recordAttempt("patient1", "10.0.0." + i, false);
+        }
+        assertFalse(tracker.isThrottled("patient1", "10.0.0.99"));
+
+        tracker.recordAttempt("patient1", "10.0.0.4", false);
+        assertTrue(tracker.isThrottled("patient1", "10.0.0.99"));
+    }
+
+    @Test
+    void testIsThrottled_AfterMaxIpFailures() {
+        for (int i = 0; i < 20; i++) {
+            tracker.recordAttempt("user" + i, "10.0.0.1", false);
+        }
+
+        assertTrue(tracker.isThrottled("someone-else", "10.0.0.1"));
+        assertFalse(tracker.isThrottled("someone-else", "10.0.0.2"));
+    }
+
+    @Test
+    void testSuccessfulLogin_ResetsUsernameCounter() {
+        tracker.recordAttempt("patient1", "10.0.0.1", false);
+        tracker.recordAttempt("patient1", "10.0.0.1", true);
+
+        assertEquals(0, tracker.getUsernameFailures("patient1"));
+        assertEquals(1, tracker.getIpFailures("10.0.0.1"));
+    }
+
+    @Test
+    void testRecordAttempt_CaseAndWhitespaceVariantsShareOneCounter() {
+        tracker.recordAttempt("patient1", "10.0.0.1", false);
+        tracker.recordAttempt("Patient1", "10.0.0.2", false);
+        tracker.recordAttempt("PATIENT1", "10.0.0.3", false);
+        tracker.recordAttempt(" patient1 ", "10.0.0.4", false);
+        tracker.recordAttempt("pAtIeNt1", "10.0.0.5", false);
+
+        assertEquals(5, tracker.getUsernameFailures("patient1"));
+        assertTrue(tracker.isThrottled("PATIENT1 ", "10.0.0.6"));
+
+        tracker.recordAttempt("Patient1", "10.0.0.1", true);
+        assertEquals(0, tracker.getUsernameFailures("patient1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetSnapshot() {
+        tracker.recordAttempt("patient1", "10.0.0.1", false);
+
+        Map<String, Object> snapshot = tracker.getSnapshot();
+        List<Map<String, Object>> usernames = (List<Map<String, Object>>) snapshot.get("usernames");
+
+        assertEquals(1, usernames.size());
+        assertEquals("patient1", usernames.get(0).get("key"));
+        assertEquals(1, usernames.get(0).get("failures"));
+    }
+
+    @Test
+    void testSlidingWindowCounter_DropsOldBuckets() {
+        LoginAttemptTracker.SlidingWindowCounter counter = new LoginAttemptTracker.SlidingWindowCounter(15);
+        counter.increment(100);
+        counter.increment(100);
+        counter.increment(110);
+
+        assertEquals(3, counter.count(110, 15));
+        assertEquals(1, counter.count(115, 15));
+        assertEquals(0, counter.count(125, 15));
+    }
+
+    @Test
+    void testRecordAttempt_KeySprayDoesNotLiftActiveLockout() {
+        for (int i = 0; i < 5; i++) {
+            tracker.recordAttempt("target", null, false);
+        }
+        assertTrue(tracker.isThrottled("target", null));
+
+        for (int i = 0; i < LoginAttemptTracker.MAX_TRACKED_KEYS + 10; i++) {
+            tracker.recordAttempt("spray" + i, null, false);
+        }
+
+        assertTrue(tracker.isThrottled("target", null));
+        assertEquals(1, tracker.getUsernameFailures("spray" + (LoginAttemptTracker.MAX_TRACKED_KEYS + 9)));
+    }
+}
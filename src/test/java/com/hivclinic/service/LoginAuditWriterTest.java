@@ -0,0 +1,140 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.LoginActivity;
+import com.hivclinic.repository.LoginActivityRepository;
+import com.hivclinic.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAuditWriterTest {
+
+    @Mock
+    private LoginActivityRepository loginActivityRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path tempDir;
+
+    private LoginAuditWriter writer;
+
+    private Path spillFile;
+
+    @BeforeEach
+    void setUp() {
+        writer = new LoginAuditWriter(2);
+        ReflectionTestUtils.setField(writer, "loginActivityRepository", loginActivityRepository);
+        ReflectionTestUtils.setField(writer, "userRepository", userRepository);
+        ReflectionTestUtils.setField(writer, "transactionTemplate", transactionTemplate);
+        spillFile = tempDir.resolve("login-audit-spill.log");
+        ReflectionTestUtils.setField(writer, "spillFile", spillFile.toString());
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(userRepository.findUserIdsByUsernames(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void testSubmit_TruncatesColumnLimitedValuesButKeepsFullUserAgent() {
+        writer.submit("patient1", false, "1".repeat(100), "a".repeat(5000));
+        writer.flush();
+
+        verify(loginActivityRepository).batchInsert(argThat(rows -> rows.size() == 1
+                && rows.get(0).getIpAddress().length() == 45
+                && rows.get(0).getUserAgent().length() == 5000));
+    }
+
+    @Test
+    void testFlush_RejectedRecordDoesNotHoldBackBatchAndIsKept() throws IOException {
+        when(loginActivityRepository.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<LoginActivity> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> "bad".equals(row.getUsernameAttempted()))) {
+                throw new DataIntegrityViolationException("String or binary data would be truncated");
+            }
+            return rows.size();
+        });
+        writer.submit("bad", false, "10.0.0.1", "JUnit");
+        writer.submit("good", true, "10.0.0.2", "JUnit");
+
+        writer.flush();
+
+        verify(loginActivityRepository).batchInsert(argThat(rows -> rows.size() == 1
+                && "good".equals(rows.get(0).getUsernameAttempted())));
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(1, Files.readAllLines(tempDir.resolve("login-audit-spill.log.rejected")).size());
+    }
+
+    @Test
+    void testFlush_OutageKeepsRecordsQueuedAndBacksOff() {
+        when(loginActivityRepository.batchInsert(anyList())).thenThrow(new RuntimeException("database down"));
+        writer.submit("a", false, "10.0.0.1", "JUnit");
+        writer.submit("b", false, "10.0.0.1", "JUnit");
+
+        writer.flush();
+        writer.flush();
+
+        // One batch attempt, no per-record retries, and the second flush waits out the backoff
+        verify(loginActivityRepository, times(1)).batchInsert(anyList());
+        assertEquals(2, writer.getQueueSize());
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void testSubmit_QueueFullDuringOutageSpillsToFileAndReplaysLater() throws IOException {
+        when(loginActivityRepository.batchInsert(anyList())).thenThrow(new RuntimeException("database down"));
+        writer.submit("a", false, "10.0.0.1", "JUnit");
+        writer.submit("b", false, "10.0.0.1", "JUnit");
+        writer.submit("c", false, "10.0.0.1", "JUnit\tagent");
+
+        assertEquals(2, writer.getQueueSize());
+        assertEquals(1, Files.readAllLines(spillFile).size());
+
+        reset(loginActivityRepository);
+        ReflectionTestUtils.setField(writer, "backoffUntilMillis", 0L);
+        writer.flush();
+
+        verify(loginActivityRepository).batchInsert(argThat(rows -> rows.size() == 2));
+        verify(loginActivityRepository).batchInsert(argThat(rows -> rows.size() == 1
+                && "c".equals(rows.get(0).getUsernameAttempted())
+                && "JUnit\tagent".equals(rows.get(0).getUserAgent())));
+        assertEquals(0, writer.getQueueSize());
+        assertFalse(Files.exists(spillFile));
+        assertFalse(Files.exists(tempDir.resolve("login-audit-spill.log.replay")));
+    }
+
+    @Test
+    void testShutdown_SpillsRecordsTheDatabaseCouldNotTake() throws IOException {
+        when(loginActivityRepository.batchInsert(anyList())).thenThrow(new RuntimeException("database down"));
+        writer.submit("a", false, "10.0.0.1", "JUnit");
+
+        writer.shutdown();
+
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(1, Files.readAllLines(spillFile).size());
+    }
+}
@@ -0,0 +1,143 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.MedicationRoutine;
+import com.hivclinic.model.Notification;
+import com.hivclinic.repository.MedicationRoutineRepository;
+import com.hivclinic.repository.NotificationRepository;
+import com.hivclinic.repository.NotificationRepositoryCustom.SentNotification;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationSchedulingServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private MedicationRoutineRepository medicationRoutineRepository;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private NotificationTimingWheel notificationTimingWheel;
+
+    @InjectMocks
+    private NotificationSchedulingService notificationSchedulingService;
+
+    @Test
+    void testProcessScheduledNotifications_MarksDueRowsInChunksUntilShortChunk() {
+        ReflectionTestUtils.setField(notificationSchedulingService, "dispatchChunkSize", 2);
+        when(notificationRepository.markDueAsSent(any(), any(), eq(2)))
+                .thenReturn(List.of(new SentNotification(1, 10), new SentNotification(2, 11)))
+                .thenReturn(List.of(new SentNotification(3, 10)));
+
+        notificationSchedulingService.processScheduledNotifications();
+
+        verify(notificationRepository, times(2)).markDueAsSent(any(), any(), eq(2));
+        verify(notificationRepository, never()).findAll();
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void testProcessScheduledNotifications_StopsOnError() {
+        when(notificationRepository.markDueAsSent(any(), any(), anyInt()))
+                .thenThrow(new RuntimeException("deadlock victim"));
+
+        notificationSchedulingService.processScheduledNotifications();
+
+        verify(notificationRepository, times(1)).markDueAsSent(any(), any(), anyInt());
+    }
+
+    @Test
+    void testCleanupOldNotifications_DeletesInBatchesUpToRunCap() {
+        ReflectionTestUtils.setField(notificationSchedulingService, "purgeBatchSize", 400);
+        ReflectionTestUtils.setField(notificationSchedulingService, "purgeMaxRowsPerRun", 1000);
+        when(schedulerLockService.tryAcquire(any(), any())).thenReturn(true);
+        when(notificationRepository.deleteSentBefore(any(), eq(400))).thenReturn(400);
+        when(notificationRepository.deleteSentBefore(any(), eq(200))).thenReturn(200);
+
+        notificationSchedulingService.cleanupOldNotifications();
+
+        verify(notificationRepository, times(2)).deleteSentBefore(any(), eq(400));
+        verify(notificationRepository).deleteSentBefore(any(), eq(200));
+        verify(notificationRepository, never()).findAll();
+        verify(notificationRepository, never()).deleteAll(anyList());
+    }
+
+    @Test
+    void testCleanupOldNotifications_StopsWhenBatchIsShort() {
+        when(schedulerLockService.tryAcquire(any(), any())).thenReturn(true);
+        when(notificationRepository.deleteSentBefore(any(), eq(1000))).thenReturn(1000, 37);
+
+        notificationSchedulingService.cleanupOldNotifications();
+
+        verify(notificationRepository, times(2)).deleteSentBefore(any(), anyInt());
+    }
+
+    @Test
+    void testCleanupOldNotifications_SkipsWhenLeaseHeldElsewhere() {
+        when(schedulerLockService.tryAcquire(eq("notifications.retention-purge"), any())).thenReturn(false);
+
+        notificationSchedulingService.cleanupOldNotifications();
+
+        verify(notificationRepository, never()).deleteSentBefore(any(), anyInt());
+        verify(schedulerLockService, never()).release(any(), any());
+    }
+
+    @Test
+    void testCleanupOldNotifications_ReleasesLeaseAfterRun() {
+        when(schedulerLockService.tryAcquire(any(), any())).thenReturn(true);
+        when(notificationRepository.deleteSentBefore(any(), anyInt())).thenReturn(0);
+
+        notificationSchedulingService.cleanupOldNotifications();
+
+        verify(schedulerLockService).release(eq("notifications.retention-purge"), any());
+    }
+
+    @Test
+    void testScheduleRecurringMedicationReminders_BatchInsertsAllRoutines() {
+        MedicationRoutine withEarlyReminder = routine(1, 30);
+        MedicationRoutine disabled = routine(2, null);
+        disabled.setReminderEnabled(false);
+        when(notificationRepository.batchInsert(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        int inserted = notificationSchedulingService.scheduleRecurringMedicationReminders(
+                List.of(withEarlyReminder, disabled, routine(3, null)));
+
+        // 10 days for each routine, the first also with a reminder 30 minutes before each dose; today's dose may be past
+        assertTrue(inserted >= 27 && inserted <= 30, "inserted " + inserted);
+        verify(notificationRepository).batchInsert(argThat(rows -> rows.size() == inserted
+                && rows.stream().allMatch(n -> n.getType() == Notification.NotificationType.MEDICATION_REMINDER)
+                && rows.stream().noneMatch(n -> n.getRelatedEntityId() == 2)));
+        verify(notificationRepository, never()).save(any());
+        verify(notificationTimingWheel).notifyScheduled(anyList());
+    }
+
+    private MedicationRoutine routine(int routineId, Integer minutesBefore) {
+        MedicationRoutine routine = new MedicationRoutine();
+        routine.setRoutineId(routineId);
+        routine.setPatientUserId(10);
+        routine.setMedicationName("TDF/3TC/DTG");
+        routine.setDosage("1 tablet");
+        routine.setTimeOfDay(LocalTime.of(8, 0));
+        routine.setEndDate(LocalDate.now().plusDays(9));
+        routine.setIsActive(true);
+        routine.setReminderEnabled(true);
+        routine.setReminderMinutesBefore(minutesBefore);
+        return routine;
+    }
+}
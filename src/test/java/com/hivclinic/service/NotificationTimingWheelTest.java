@@ -0,0 +1,109 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.Notification;
+import com.hivclinic.repository.NotificationRepository;
+import com.hivclinic.repository.NotificationRepositoryCustom.PendingNotification;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationTimingWheelTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @InjectMocks
+    private NotificationTimingWheel timingWheel;
+
+    @Test
+    void testWheel_FiresEachLevelOnItsTick() {
+        NotificationTimingWheel.Wheel wheel = new NotificationTimingWheel.Wheel(1000);
+        wheel.add(1, 1005);
+        wheel.add(2, 1000 + 61 * 60 + 7);
+        wheel.add(3, 1000 + 5 * 3600 + 30);
+        wheel.add(4, 990);
+
+        assertEquals(List.of(4), wheel.advanceTo(1004));
+        assertEquals(List.of(1), wheel.advanceTo(1005));
+        assertEquals(List.of(), wheel.advanceTo(1000 + 61 * 60 + 6));
+        assertEquals(List.of(2), wheel.advanceTo(1000 + 61 * 60 + 7));
+        assertEquals(List.of(), wheel.advanceTo(1000 + 5 * 3600 + 29));
+        assertEquals(List.of(3), wheel.advanceTo(1000 + 5 * 3600 + 30));
+    }
+
+    @Test
+    void testAdvance_LoadsHorizonAndFiresAtScheduledSecond() {
+        long nowMillis = System.currentTimeMillis() / 1000 * 1000;
+        LocalDateTime now = toLocalDateTime(nowMillis);
+        when(notificationRepository.findMaxNotificationId()).thenReturn(50);
+        when(notificationRepository.findUnsentScheduledBetween(eq(now), eq(Integer.MAX_VALUE), any(), anyInt()))
+                .thenReturn(List.of(new PendingNotification(7, now.plusSeconds(30))));
+
+        assertEquals(List.of(), timingWheel.advance(nowMillis));
+        timingWheel.load(nowMillis);
+        assertEquals(1, timingWheel.size());
+        assertEquals(List.of(), timingWheel.advance(nowMillis + 29_999));
+        assertEquals(List.of(7), timingWheel.advance(nowMillis + 30_000));
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    void testLoad_PagesThroughRowsSharingOneScheduledTime() {
+        long nowMillis = System.currentTimeMillis() / 1000 * 1000;
+        LocalDateTime now = toLocalDateTime(nowMillis);
+        LocalDateTime cohort = now.plusMinutes(5);
+        List<PendingNotification> firstPage = new ArrayList<>();
+        for (int id = 1; id <= 1000; id++) {
+            firstPage.add(new PendingNotification(id, cohort));
+        }
+        when(notificationRepository.findMaxNotificationId()).thenReturn(1001);
+        when(notificationRepository.findUnsentScheduledBetween(eq(now), eq(Integer.MAX_VALUE), any(), eq(1000)))
+                .thenReturn(firstPage);
+        when(notificationRepository.findUnsentScheduledBetween(eq(cohort), eq(1000), any(), eq(1000)))
+                .thenReturn(List.of(new PendingNotification(1001, cohort)));
+
+        timingWheel.load(nowMillis);
+
+        assertEquals(1001, timingWheel.size());
+        assertEquals(1001, timingWheel.advance(nowMillis + 5 * 60_000).size());
+    }
+
+    @Test
+    void testLoad_PicksUpInsertedRowsIncludingLateLowerIds() {
+        long nowMillis = System.currentTimeMillis() / 1000 * 1000;
+        LocalDateTime now = toLocalDateTime(nowMillis);
+        when(notificationRepository.findMaxNotificationId()).thenReturn(5000);
+        when(notificationRepository.findUnsentScheduledBetween(any(), anyInt(), any(), anyInt())).thenReturn(List.of());
+        timingWheel.load(nowMillis);
+
+        Notification inserted = new Notification();
+        inserted.setScheduledFor(now.plusSeconds(2));
+        // 4990 committed after 5000 was read, and is still found by the trailing ID window
+        when(notificationRepository.findUnsentScheduledAfterId(4000, 1000))
+                .thenReturn(List.of(new PendingNotification(4990, now.plusSeconds(2)),
+                        new PendingNotification(5001, now.plusDays(2))));
+        timingWheel.notifyScheduled(List.of(inserted));
+        timingWheel.load(nowMillis + 500);
+
+        assertEquals(List.of(), timingWheel.advance(nowMillis + 1000));
+        assertEquals(List.of(4990), timingWheel.advance(nowMillis + 2000));
+        verify(notificationRepository).findUnsentScheduledAfterId(4000, 1000);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,98 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.PatientProfile;
+import com.hivclinic.repository.PatientProfileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientPrivacyServiceTest {
+
+    @Mock
+    private PatientProfileRepository patientProfileRepository;
+
+    @InjectMocks
+    private PatientPrivacyService patientPrivacyService;
+
+    @Test
+    void testGetPrivacySettings_BulkLookupUsesOneQueryAndCaches() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1, true});
+        rows.add(new Object[]{2, false});
+        when(patientProfileRepository.findPrivacyFlagsByUserIds(Set.of(1, 2, 3))).thenReturn(rows);
+
+        Map<Integer, Boolean> settings = patientPrivacyService.getPrivacySettings(List.of(1, 2, 3));
+
+        assertEquals(Map.of(1, true, 2, false, 3, false), settings);
+        assertTrue(patientPrivacyService.getPrivacySettings(1));
+        assertFalse(patientPrivacyService.getPrivacySettings(3));
+        verify(patientProfileRepository, times(1)).findPrivacyFlagsByUserIds(any());
+        verify(patientProfileRepository, never()).findByUser_UserId(any());
+    }
+
+    @Test
+    void testUpdatePrivacySettings_InvalidatesCachedFlag() {
+        PatientProfile profile = new PatientProfile();
+        profile.setIsPrivate(false);
+        when(patientProfileRepository.findByUser_UserId(7)).thenReturn(Optional.of(profile));
+
+        assertFalse(patientPrivacyService.getPrivacySettings(7));
+        patientPrivacyService.updatePrivacySettings(7, true);
+
+        assertTrue(patientPrivacyService.getPrivacySettings(7));
+        verify(patientProfileRepository, times(3)).findByUser_UserId(7);
+    }
+
+    @Test
+    void testGetPrivacySettings_ReadRacingUpdateDoesNotCacheStaleFlag() {
+        PatientProfile profile = new PatientProfile();
+        profile.setIsPrivate(false);
+        when(patientProfileRepository.findByUser_UserId(7)).thenReturn(Optional.of(profile));
+        when(patientProfileRepository.findPrivacyFlagsByUserIds(Set.of(7))).thenAnswer(invocation -> {
+            // The read saw the row before the update committed
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{7, false});
+            patientPrivacyService.updatePrivacySettings(7, true);
+            return rows;
+        });
+
+        assertEquals(Map.of(7, false), patientPrivacyService.getPrivacySettings(List.of(7)));
+
+        assertTrue(patientPrivacyService.getPrivacySettings(7));
+    }
+
+    @Test
+    void testUpdatePrivacySettings_EvictsOnlyAfterCommit() {
+        PatientProfile profile = new PatientProfile();
+        profile.setIsPrivate(true);
+        when(patientProfileRepository.findByUser_UserId(7)).thenReturn(Optional.of(profile));
+        assertTrue(patientPrivacyService.getPrivacySettings(7));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            patientPrivacyService.updatePrivacySettings(7, false);
+            assertTrue(patientPrivacyService.getPrivacySettings(7));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(patientPrivacyService.getPrivacySettings(7));
+    }
+}
@@ -0,0 +1,56 @@
+package com.hivclinic.service;
+
+import com.hivclinic.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLockServiceTest {
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @InjectMocks
+    private SchedulerLockService schedulerLockService;
+
+    @Test
+    void testTryAcquire_PassesLeaseAsSecondsWithInstanceOwner() {
+        when(schedulerLockRepository.tryAcquire("job", schedulerLockService.getOwner(), 3000L)).thenReturn(true);
+
+        assertTrue(schedulerLockService.tryAcquire("job", Duration.ofMinutes(50)));
+    }
+
+    @Test
+    void testTryAcquire_FailsClosedOnError() {
+        when(schedulerLockRepository.tryAcquire(any(), any(), anyLong())).thenThrow(new RuntimeException("down"));
+
+        assertFalse(schedulerLockService.tryAcquire("job", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testRelease_KeepsLeaseForMinimumDuration() {
+        schedulerLockService.release("job", Duration.ofMinutes(10));
+
+        verify(schedulerLockRepository).release("job", schedulerLockService.getOwner(), 600L);
+    }
+
+    @Test
+    void testDisabled_AlwaysRunsWithoutTouchingTable() {
+        ReflectionTestUtils.setField(schedulerLockService, "enabled", false);
+
+        assertTrue(schedulerLockService.tryAcquire("job", Duration.ofMinutes(1)));
+        schedulerLockService.release("job", Duration.ofMinutes(1));
+
+        verifyNoInteractions(schedulerLockRepository);
+    }
+}
@@ -0,0 +1,138 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.SessionRevocation;
+import com.hivclinic.repository.SessionRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionRevocationStoreTest {
+
+    @Mock
+    private SessionRevocationRepository sessionRevocationRepository;
+
+    private SessionRevocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SessionRevocationStore();
+        ReflectionTestUtils.setField(store, "sessionRevocationRepository", sessionRevocationRepository);
+        ReflectionTestUtils.setField(store, "jwtExpirationMs", 60000L);
+    }
+
+    @Test
+    void testRevokeSession() {
+        store.revokeSession("sid-1", System.currentTimeMillis() + 60000);
+
+        assertTrue(store.isRevoked("sid-1", 1, 100L));
+        assertFalse(store.isRevoked("sid-2", 1, 100L));
+    }
+
+    @Test
+    void testRevokeSession_AlreadyExpiredTokenIsIgnored() {
+        store.revokeSession("sid-1", System.currentTimeMillis() - 1);
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRevokeUserSessionsBefore() {
+        store.revokeUserSessionsBefore(1, 200L);
+
+        assertTrue(store.isRevoked("sid-1", 1, 100L));
+        assertFalse(store.isRevoked("sid-2", 1, 200L));
+        assertFalse(store.isRevoked("sid-3", 2, 100L));
+    }
+
+    @Test
+    void testRevokeUserSessionsBefore_KeepsHighestVersion() {
+        store.revokeUserSessionsBefore(1, 300L);
+        store.revokeUserSessionsBefore(1, 200L);
+
+        assertTrue(store.isRevoked("sid-1", 1, 250L));
+    }
+
+    @Test
+    void testPurgeExpired() {
+        store.revokeUserSessionsBefore(1, System.currentTimeMillis() - 120000);
+        store.revokeSession("sid-1", System.currentTimeMillis() + 60000);
+
+        store.purgeExpired();
+
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testRevokeSession_NotSharedWhenStatelessValidationDisabled() {
+        store.revokeSession("sid-1", System.currentTimeMillis() + 60000);
+
+        assertTrue(store.isReady());
+        verifyNoInteractions(sessionRevocationRepository);
+    }
+
+    @Test
+    void testRevokeSession_SharedThroughRepository() {
+        ReflectionTestUtils.setField(store, "shared", true);
+
+        store.revokeSession("sid-1", System.currentTimeMillis() + 60000);
+        store.revokeUserSessionsBefore(1, 200L);
+
+        ArgumentCaptor<SessionRevocation> captor = ArgumentCaptor.forClass(SessionRevocation.class);
+        verify(sessionRevocationRepository, times(2)).save(captor.capture());
+        assertEquals("sid-1", captor.getAllValues().get(0).getSessionId());
+        assertEquals(1, captor.getAllValues().get(1).getUserId());
+        assertEquals(200L, captor.getAllValues().get(1).getMinVersion());
+    }
+
+    @Test
+    void testPollRevocations_LoadsThenAppliesRowsFromOtherInstances() {
+        ReflectionTestUtils.setField(store, "shared", true);
+        LocalDateTime createdAt = LocalDateTime.now().minusSeconds(5);
+        SessionRevocation loaded = revocation("sid-1", null, null, createdAt);
+        SessionRevocation later = revocation(null, 2, 300L, createdAt.plusSeconds(1));
+        when(sessionRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of(loaded));
+        when(sessionRevocationRepository.findByCreatedAtGreaterThanEqualAndExpiresAtAfter(
+            eq(createdAt.minusSeconds(60)), any())).thenReturn(List.of(loaded, later));
+
+        assertFalse(store.isReady());
+        store.pollRevocations();
+        assertTrue(store.isReady());
+        assertTrue(store.isRevoked("sid-1", 1, 100L));
+
+        store.pollRevocations();
+        assertTrue(store.isRevoked("sid-2", 2, 250L));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testPollRevocations_NotReadyWhileLoadFails() {
+        ReflectionTestUtils.setField(store, "shared", true);
+        when(sessionRevocationRepository.findByExpiresAtAfter(any())).thenThrow(new RuntimeException("DB down"));
+
+        store.pollRevocations();
+
+        assertFalse(store.isReady());
+    }
+
+    private static SessionRevocation revocation(String sessionId, Integer userId, Long minVersion, LocalDateTime createdAt) {
+        SessionRevocation revocation = new SessionRevocation();
+        revocation.setSessionId(sessionId);
+        revocation.setUserId(userId);
+        revocation.setMinVersion(minVersion);
+        revocation.setExpiresAt(LocalDateTime.now().plusMinutes(1));
+        revocation.setCreatedAt(createdAt);
+        return revocation;
+    }
+}
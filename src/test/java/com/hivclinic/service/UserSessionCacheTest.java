@@ -0,0 +1,87 @@
+package com.hivclinic.service;
+
+import com.hivclinic.model.User;
+import com.hivclinic.model.UserSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSessionCacheTest {
+
+    private UserSessionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserSessionCache();
+    }
+
+    @Test
+    void testPutAndGet_ActiveSession() {
+        cache.put(createSession(1L, 10, "token-1", LocalDateTime.now().plusMinutes(15)));
+
+        assertTrue(cache.get("token-1").isPresent());
+        assertEquals(1L, cache.get("token-1").get().getSessionId());
+        assertFalse(cache.get("token-2").isPresent());
+    }
+
+    @Test
+    void testGet_ExpiredSessionIsEvicted() {
+        cache.put(createSession(1L, 10, "token-1", LocalDateTime.now().minusMinutes(1)));
+
+        assertFalse(cache.get("token-1").isPresent());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_InactiveSessionIsIgnored() {
+        UserSession session = createSession(1L, 10, "token-1", LocalDateTime.now().plusMinutes(15));
+        session.setIsActive(false);
+
+        cache.put(session);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEvictAndEvictUser() {
+        cache.put(createSession(1L, 10, "token-1", LocalDateTime.now().plusMinutes(15)));
+        cache.put(createSession(2L, 10, "token-2", LocalDateTime.now().plusMinutes(15)));
+        cache.put(createSession(3L, 20, "token-3", LocalDateTime.now().plusMinutes(15)));
+
+        cache.evict("token-1");
+        assertFalse(cache.get("token-1").isPresent());
+
+        cache.evictUser(10);
+        assertFalse(cache.get("token-2").isPresent());
+        assertTrue(cache.get("token-3").isPresent());
+    }
+
+    @Test
+    void testTouch_ExtendsExpiry() {
+        cache.put(createSession(1L, 10, "token-1", LocalDateTime.now().plusMinutes(1)));
+        UserSessionCache.CachedSession cached = cache.get("token-1").orElseThrow();
+
+        LocalDateTime now = LocalDateTime.now();
+        cached.touch(now);
+
+        assertEquals(now, cached.getLastActivityAt());
+        assertEquals(now.plusMinutes(15), cached.getExpiresAt());
+    }
+
+    private UserSession createSession(Long id, Integer userId, String token, LocalDateTime expiresAt) {
+        User user = new User();
+        user.setUserId(userId);
+        UserSession session = new UserSession();
+        session.setSessionId(id);
+        session.setUser(user);
+        session.setSessionToken(token);
+        session.setIsActive(true);
+        session.setSessionTimeoutMinutes(15);
+        session.setLastActivityAt(LocalDateTime.now());
+        session.setExpiresAt(expiresAt);
+        return session;
+    }
+}